@@ -0,0 +1,29 @@
+package com.jaffardev.MicroLMS.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Streaming exports (submission ZIPs, gradebook CSVs) are written from their own bounded pool, so a
+ * burst of large downloads can't starve Tomcat's request threads. The pool is not a default candidate:
+ * @Async and anything else asking for an executor keep the auto-configured one.
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String EXPORT_EXECUTOR = "exportExecutor";
+
+    @Bean(name = EXPORT_EXECUTOR, defaultCandidate = false)
+    public ThreadPoolTaskExecutor exportExecutor(@Value("${app.export.threads:4}") int exportThreads,
+                                                 @Value("${app.export.queue-capacity:50}") int exportQueueCapacity) {
+        // initialized and shut down with the context
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportThreads);
+        executor.setMaxPoolSize(exportThreads);
+        executor.setQueueCapacity(exportQueueCapacity);
+        executor.setThreadNamePrefix("export-");
+        return executor;
+    }
+}
@@ -1,19 +1,25 @@
 package com.jaffardev.MicroLMS.config;
 
-import io.jsonwebtoken.JwtException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.jaffardev.MicroLMS.security.VerifiedClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 
@@ -23,12 +29,47 @@ public class JwtConfig {
     @Value("${app.jwt.secret}")
     private String secretKeyString;
 
+    @Value("${app.jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
     private SecretKey key;
 
+    private JwtParser parser;
+
+    // token digest -> verified claims, each entry lives until the token's own exp
+    private Cache<String, VerifiedClaims> verifiedClaims;
+
     @PostConstruct
     public void init() {
         // The secret must be >= 256 bits for HS256
         key = Keys.hmacShaKeyFor(secretKeyString.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedClaims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedClaims claims, long currentTime) {
+                        if (claims.getExpiresAt() == null) {
+                            return Long.MAX_VALUE;
+                        }
+                        return Math.max(0, Duration.between(Instant.now(), claims.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedClaims claims,
+                                                  long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedClaims claims,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String email, List<String> roles) {
@@ -41,33 +82,55 @@ public class JwtConfig {
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims. Tokens seen before are answered from the
+     * cache without touching the HMAC; failures are never cached and surface as JwtException.
+     */
+    public VerifiedClaims verify(String token) {
+        String digest = digest(token);
+        VerifiedClaims cached = verifiedClaims.getIfPresent(digest);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        // Expired entries fall through so the parser raises ExpiredJwtException as before
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+        VerifiedClaims verified = new VerifiedClaims(
+                claims.getSubject(),
+                roles == null ? List.of() : List.copyOf(roles),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant()
+        );
+        verifiedClaims.put(digest, verified);
+        return verified;
+    }
+
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)            // ✅ replaces setSigningKey
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return verify(token).getEmail();
     }
 
     public List<String> getRolesFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("roles", List.class);
+        return verify(token).getRoles();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
+            verify(token);
             return true;
-        } catch (SignatureException ex) {
+        } catch (JwtException ex) {
             return false;
         }
     }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package com.jaffardev.MicroLMS.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * The target is picked when a connection is really fetched (ReplicaRoutingConfig wraps this in a
+ * LazyConnectionDataSourceProxy), so the transaction's read-only flag is known by then. A read-only
+ * transaction still goes to the primary while the replica lags more than max-lag, while the current
+ * user is in their read-your-writes window, or inside onPrimary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      ReplicaLagMonitor lagMonitor, ReadYourWrites readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Runs work with every connection fetched meanwhile taken from the primary. For reads whose result
+     * outlives the request (local caches, access checks): a transaction that has to fill a cache then runs
+     * on the primary as long as nothing fetched its connection before. No-op without a replica.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (FORCE_PRIMARY.get() != null) {
+            return work.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        if (FORCE_PRIMARY.get() != null || readYourWrites.isSticky() || lagMonitor.isLagging()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
@@ -0,0 +1,82 @@
+package com.jaffardev.MicroLMS.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Users who just wrote something, so their read-only transactions stay on the primary for the sticky
+ * window and they see their own change even when the replica hasn't replayed it yet. The window starts
+ * when a transaction that changed data commits; a read-write transaction that only read, or one that
+ * rolled back, leaves the user on the replica. Kept per node; other users (and other nodes) rely on
+ * the lag tolerance alone.
+ */
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(Duration stickyWindow, long maxSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /** Called by WriteDetectingDataSource for every statement that changes data. */
+    void onWrite() {
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // auto-commit, the change is already visible on the primary
+            recentWriters.put(user, Boolean.TRUE);
+            return;
+        }
+        // one synchronization per transaction, however many statements it writes with
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(ReadYourWrites.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(ReadYourWrites.this, user);
+            }
+
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReadYourWrites.this);
+            }
+        });
+    }
+
+    boolean isSticky() {
+        String user = currentUser();
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
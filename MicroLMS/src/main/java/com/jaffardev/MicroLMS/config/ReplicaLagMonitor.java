@@ -0,0 +1,53 @@
+package com.jaffardev.MicroLMS.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the replica's replay delay. While it is above max-lag, or the replica can't be reached, reads
+ * are routed to the primary. A replica that has replayed everything it received counts as caught up,
+ * however long ago the last write on the primary was.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_MILLIS = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private volatile boolean lagging = true; // until the first check went through
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean wasLagging = lagging;
+        try {
+            Double lagMillis = replica.queryForObject(LAG_MILLIS, Double.class);
+            lagging = lagMillis == null || lagMillis > maxLag.toMillis();
+        } catch (DataAccessException e) {
+            lagging = true;
+            if (!wasLagging) {
+                log.warn("Replica lag check failed, reading from the primary: " + e.getMessage());
+            }
+        }
+        if (lagging != wasLagging) {
+            log.info(lagging ? "Replica behind by more than " + maxLag + ", reading from the primary"
+                    : "Replica caught up, read-only transactions go to it");
+        }
+    }
+
+    boolean isLagging() {
+        return lagging;
+    }
+}
@@ -35,6 +35,8 @@ public class SecurityConfig {
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
     @Value("${app.frontend-url}")
     private List<String> frontendUrls;
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -47,6 +49,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/users/*/profile").permitAll()
                         .requestMatchers("/error").permitAll() // important
+                        // scraped without a token on the management port, which is not published
+                        .requestMatchers(request -> managementPort > 0
+                                && request.getLocalPort() == managementPort).permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers(
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
@@ -0,0 +1,69 @@
+package com.jaffardev.MicroLMS.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import static com.jaffardev.MicroLMS.utils.JdbcProxies.proxy;
+
+/**
+ * The primary pool as the routing DataSource sees it: tells ReadYourWrites about every statement that
+ * changes data. Prepared statements are judged by their SQL when prepared (Hibernate and JdbcTemplate
+ * prepare everything), only a plain Statement is wrapped to see the SQL it executes.
+ */
+class WriteDetectingDataSource extends DelegatingDataSource {
+
+    private final ReadYourWrites readYourWrites;
+
+    WriteDetectingDataSource(DataSource target, ReadYourWrites readYourWrites) {
+        super(target);
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return detecting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return detecting(super.getConnection(username, password));
+    }
+
+    private Connection detecting(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (method.getName().startsWith("prepare") && isWrite((String) args[0])) {
+                readYourWrites.onWrite();
+            } else if (method.getName().equals("createStatement")) {
+                return detecting((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private Statement detecting(Statement statement) {
+        return proxy(Statement.class, statement, (method, args, result) -> {
+            if (method.getName().equals("executeBatch")
+                    || method.getName().startsWith("execute") && args != null && isWrite((String) args[0])) {
+                readYourWrites.onWrite();
+            }
+            return result;
+        });
+    }
+
+    // Reads are SELECTs and CTEs without a data-modifying part; anything else counts as a write
+    static boolean isWrite(String sql) {
+        String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (head.startsWith("select")) {
+            return false;
+        }
+        if (head.startsWith("with")) {
+            return head.contains("insert") || head.contains("update") || head.contains("delete");
+        }
+        return true;
+    }
+}
@@ -2,34 +2,48 @@ package com.jaffardev.MicroLMS.controllers;
 
 import com.jaffardev.MicroLMS.dto.CreateAssignmentRequest;
 import com.jaffardev.MicroLMS.dto.CreateAssignmentResponse;
+import com.jaffardev.MicroLMS.dto.RemainingAssignmentsPage;
 import com.jaffardev.MicroLMS.dto.UpdateAssignmentRequest;
 import com.jaffardev.MicroLMS.model.Assignment;
+import com.jaffardev.MicroLMS.service.AssignmentGradeStatsService;
 import com.jaffardev.MicroLMS.service.AssignmentService;
+import com.jaffardev.MicroLMS.service.ContentVersionService;
+import com.jaffardev.MicroLMS.service.CourseAccessService;
+import com.jaffardev.MicroLMS.storage.BlobStore;
+import com.jaffardev.MicroLMS.storage.IngestedFile;
+import com.jaffardev.MicroLMS.storage.IngestedUpload;
+import com.jaffardev.MicroLMS.storage.MultipartIngest;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.*;
 
-import static com.jaffardev.MicroLMS.utils.CommonUtils.isValidFile;
+import static com.jaffardev.MicroLMS.controllers.Etags.notModified;
+import static com.jaffardev.MicroLMS.controllers.Etags.revalidated;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/assignment")
 public class AssignmentController {
     private final AssignmentService assignmentService;
+    private final MultipartIngest multipartIngest;
+    private final BlobStore blobStore;
+    private final AssignmentGradeStatsService gradeStatsService;
+    private final ContentVersionService contentVersionService;
+    private final CourseAccessService courseAccessService;
     public static final Set<String> ALLOWED_EXTENSIONS = Set.of("pdf", "docx", "pptx", "png", "jpg", "jpeg");
 
     @PostMapping("/create")
@@ -51,36 +65,48 @@ public class AssignmentController {
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE
     )
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<?> createAssignmentWithFiles(
-            @ModelAttribute CreateAssignmentRequest request,
-            @RequestPart("files") MultipartFile[] files,
-            Authentication authentication) throws IOException {
-
-        Long courseId = request.getCourseId();
-        Path uploadDir = Paths.get("uploads", String.valueOf(courseId));
-        Files.createDirectories(uploadDir); // ensure folder exists
-
+    public ResponseEntity<?> createAssignmentWithFiles(HttpServletRequest httpRequest,
+                                                       Authentication authentication) {
+        IngestedUpload upload = null;
         List<String> filePaths = new ArrayList<>();
-        for (MultipartFile file : files) {
-            if (!isValidFile(file)) {
-                return ResponseEntity.badRequest().body("Invalid file type: " + file.getOriginalFilename());
+        try {
+            // Files are staged while streaming, then handed to the blob store. courseId has to come before
+            // the files: ownership is checked on it before the first file part is written
+            upload = multipartIngest.ingest(httpRequest.getContentType(), httpRequest.getInputStream(),
+                    fields -> courseAccessService.requireTeacher(courseIdOf(fields), authentication.getName()));
+
+            CreateAssignmentRequest request = new CreateAssignmentRequest();
+            request.setTitle(upload.getField("title"));
+            request.setDescription(upload.getField("description"));
+            request.setMaxMarks(upload.getField("maxMarks") == null ? null : Integer.valueOf(upload.getField("maxMarks")));
+            request.setCourseId(courseIdOf(upload));
+            request.setDueDate(upload.getField("dueDate") == null ? null : LocalDateTime.parse(upload.getField("dueDate")));
+
+            Path uploadDir = Paths.get("uploads", String.valueOf(request.getCourseId()));
+            for (IngestedFile file : upload.getFiles("files")) {
+                // Store relative path (not absolute for security)
+                filePaths.add(blobStore.store(file, uploadDir));
             }
-            String safeName = UUID.randomUUID() + "-" +
-                    StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+            request.setMaterials(filePaths);
 
-            Path destination = uploadDir.resolve(safeName);
-
-            // Save file
-            Files.copy(file.getInputStream(), destination, StandardCopyOption.REPLACE_EXISTING);
-
-            // Store relative path (not absolute for security)
-            filePaths.add("/uploads/" + courseId + "/" + safeName);
+            String teacherEmail = authentication.getName();
+            CreateAssignmentResponse response = assignmentService.createAssignment(request, teacherEmail);
+            return ResponseEntity.ok(response);
+        } catch (IOException | RuntimeException e) {
+            blobStore.releaseAll(filePaths);
+            if (upload != null) {
+                upload.deleteFiles();
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
-        request.setMaterials(filePaths);
+    }
 
-        String teacherEmail = authentication.getName();
-        CreateAssignmentResponse response = assignmentService.createAssignment(request, teacherEmail);
-        return ResponseEntity.ok(response);
+    private static Long courseIdOf(IngestedUpload upload) {
+        String courseId = upload.getField("courseId");
+        if (courseId == null) {
+            throw new RuntimeException("courseId must be sent before the files");
+        }
+        return Long.valueOf(courseId);
     }
 
     @PutMapping("/{id}/update")
@@ -116,7 +142,6 @@ public class AssignmentController {
         }
     }
 
-    //TODO Should make separate method for getting only those assignments which are not submitted yet.
     @GetMapping("/course/{courseId}")
     @PreAuthorize("hasAnyRole('TEACHER','STUDENT')")
     public ResponseEntity<?> getAssignmentsByCourse(@PathVariable Long courseId, Authentication authentication) {
@@ -129,13 +154,47 @@ public class AssignmentController {
         }
     }
 
+    // Keyset paged by assignment id: pass nextAfterId of the previous page as afterId
+    @GetMapping("/course/{courseId}/page")
+    @PreAuthorize("hasAnyRole('TEACHER','STUDENT')")
+    public ResponseEntity<?> getAssignmentPage(@PathVariable Long courseId,
+                                               @RequestParam(defaultValue = "0") Long afterId,
+                                               @RequestParam(defaultValue = "20") int size,
+                                               Authentication authentication) {
+        try {
+            return ResponseEntity.ok(assignmentService.getAssignmentPage(courseId, authentication.getName(), afterId, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Keyset paged: pass nextAfterDueDate/nextAfterId of the previous page as afterDueDate/afterId
     @GetMapping("/course/submission-remain/{courseId}")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<?> getSubmissionRemainAssignmentsByCourse(@PathVariable Long courseId, Authentication authentication) {
+    public ResponseEntity<?> getSubmissionRemainAssignmentsByCourse(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDueDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
         try {
             String email = authentication.getName();
-            List<CreateAssignmentResponse> assignments = assignmentService.getSubmissionRemainAssignmentsByCourse(courseId, email);
-            return ResponseEntity.ok(assignments);
+            RemainingAssignmentsPage page = assignmentService.getSubmissionRemainAssignmentsByCourse(
+                    courseId, email, afterDueDate, afterId, size);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Student dashboard: unsubmitted assignments of all enrolled courses due in the next N days
+    @GetMapping("/due-soon")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> getAssignmentsDueSoon(@RequestParam(defaultValue = "7") int days,
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   Authentication authentication) {
+        try {
+            return ResponseEntity.ok(assignmentService.getAssignmentsDueSoon(authentication.getName(), days, size));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -143,14 +202,50 @@ public class AssignmentController {
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('TEACHER','STUDENT')")
-    public ResponseEntity<?> getAssignmentById(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<?> getAssignmentById(@PathVariable Long id, Authentication authentication,
+                                               WebRequest webRequest) {
         try {
             String email = authentication.getName();
+            String etag = contentVersionService.assignmentEtag(id, email);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             CreateAssignmentResponse assignment = assignmentService.getAssignmentById(id, email);
-            return ResponseEntity.ok(assignment);
+            return revalidated(etag).body(assignment);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/stats")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getGradeStats(@PathVariable Long id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(gradeStatsService.getStats(id, authentication.getName()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
-}
\ No newline at end of file
+    // Recounts the statistics from the submissions and reports whether they had drifted
+    @PostMapping("/{id}/stats/rebuild")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> rebuildGradeStats(@PathVariable Long id, Authentication authentication) {
+        try {
+            boolean consistent = gradeStatsService.rebuild(id, authentication.getName());
+            return ResponseEntity.ok(Map.of("assignmentId", id, "consistent", consistent));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildAllGradeStats(Authentication authentication) {
+        try {
+            return ResponseEntity.ok(gradeStatsService.rebuildAll(authentication.getName()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
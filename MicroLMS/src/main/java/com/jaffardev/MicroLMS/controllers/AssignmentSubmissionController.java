@@ -1,45 +1,63 @@
 package com.jaffardev.MicroLMS.controllers;
 
 import com.jaffardev.MicroLMS.dto.AssignmentUnSubmitResponse;
+import com.jaffardev.MicroLMS.dto.BulkGradeRequest;
+import com.jaffardev.MicroLMS.dto.BulkGradeResponse;
 import com.jaffardev.MicroLMS.dto.GradeSubmissionRequest;
 import com.jaffardev.MicroLMS.dto.AssignmentSubmissionResponse;
 import com.jaffardev.MicroLMS.model.AssignmentSubmission;
 import com.jaffardev.MicroLMS.service.AssignmentSubmissionService;
+import com.jaffardev.MicroLMS.service.ContentVersionService;
+import com.jaffardev.MicroLMS.service.SubmissionExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static com.jaffardev.MicroLMS.controllers.Etags.notModified;
+import static com.jaffardev.MicroLMS.controllers.Etags.revalidated;
 
 @RestController
 @RequestMapping("/api/submissions")
 @RequiredArgsConstructor
 public class AssignmentSubmissionController {
     private final AssignmentSubmissionService submissionService;
+    private final SubmissionExportService exportService;
+    private final ContentVersionService contentVersionService;
+    private final StreamingExports streamingExports;
 
     // STUDENT submits assignment
     @PostMapping("/{assignmentId}/submit")
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<?> submitAssignment(
             @PathVariable Long assignmentId,
-            @RequestPart(value = "files", required = false) MultipartFile[] files,
-            @RequestParam(value = "retainedFiles", required = false) List<String> retainedFiles,
+            HttpServletRequest request,
             Authentication authentication) throws IOException {
 
         try {
             String studentEmail = authentication.getName();
 
+            // "files" parts and "retainedFiles" fields are read from the body as it streams in
             AssignmentSubmissionResponse response = submissionService.submitAssignment(
                     assignmentId,
                     studentEmail,
-                    files,
-                    retainedFiles
+                    request.getContentType(),
+                    request.getInputStream()
             );
             return ResponseEntity.ok(response);
         } catch (RuntimeException ex) {
@@ -61,6 +79,21 @@ public class AssignmentSubmissionController {
         }
     }
 
+    // TEACHER grades many submissions of one assignment in a single call
+    @PutMapping("/assignment/{assignmentId}/grades")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> gradeSubmissions(@PathVariable Long assignmentId,
+                                              @Valid @RequestBody BulkGradeRequest request,
+                                              Authentication authentication) {
+        try {
+            String teacherEmail = authentication.getName();
+            BulkGradeResponse response = submissionService.gradeSubmissions(assignmentId, request, teacherEmail);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // TEACHER or STUDENT view submissions
     @GetMapping("/assignment/{assignmentId}")
     @PreAuthorize("hasAnyRole('TEACHER')")
@@ -73,16 +106,57 @@ public class AssignmentSubmissionController {
         }
     }
 
+    // Keyset paged by submission id, fields=files adds the file paths
+    @GetMapping("/assignment/{assignmentId}/page")
+    @PreAuthorize("hasAnyRole('TEACHER')")
+    public ResponseEntity<?> getSubmissionPage(@PathVariable Long assignmentId,
+                                               @RequestParam(defaultValue = "0") Long afterId,
+                                               @RequestParam(defaultValue = "20") int size,
+                                               @RequestParam(required = false) Set<String> fields,
+                                               Authentication authentication) {
+        try {
+            String teacherEmail = authentication.getName();
+            return ResponseEntity.ok(submissionService.getSubmissionPage(assignmentId, teacherEmail, afterId, size, fields));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // TEACHER downloads every submitted file as one ZIP, written while it is being sent
+    @GetMapping("/assignment/{assignmentId}/export")
+    @PreAuthorize("hasRole('TEACHER')")
+    public WebAsyncTask<ResponseEntity<?>> exportSubmissions(@PathVariable Long assignmentId, Authentication authentication,
+                                                             HttpServletResponse response) {
+        return streamingExports.stream(response, () -> {
+            try {
+                StreamingResponseBody body = exportService.exportSubmissions(assignmentId, authentication.getName());
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("application/zip"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("assignment-" + assignmentId + "-submissions.zip").build().toString())
+                        .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                        .body(body);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
     @GetMapping("/{assignmentId}/getSubmissionStatus")
     @PreAuthorize("hasAnyRole('TEACHER', 'STUDENT')")
-    public ResponseEntity<?> isSubmitted(@PathVariable Long assignmentId, Authentication authentication) {
+    public ResponseEntity<?> isSubmitted(@PathVariable Long assignmentId, Authentication authentication,
+                                         WebRequest webRequest) {
         try {
             String stdEmail = authentication.getName();
+            String etag = contentVersionService.submissionEtag(assignmentId, stdEmail);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             AssignmentSubmission submission = submissionService.getSubmissionDetails(assignmentId, stdEmail);
 
             if (submission != null) {
                 // Return an object that mirrors what your submit method returns
-                return ResponseEntity.ok(Map.of(
+                return revalidated(etag).body(Map.of(
                         "submissionId", submission.getId(),
                         "assignmentId", assignmentId,
                         "studentEmail", stdEmail,
@@ -90,7 +164,7 @@ public class AssignmentSubmissionController {
                         "status", submission.getStatus().toString()
                 ));
             } else {
-                return ResponseEntity.ok(Map.of("files", List.of(), "status", "NONE"));
+                return revalidated(etag).body(Map.of("files", List.of(), "status", "NONE"));
             }
         }catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -115,9 +189,11 @@ public class AssignmentSubmissionController {
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> updateGrade(
             @PathVariable Long submissionId,
-            @RequestParam Integer marks) {
+            @RequestParam Integer marks,
+            Authentication authentication) {
         try {
-            AssignmentSubmissionResponse response = submissionService.updateGradeSubmission(submissionId, marks);
+            AssignmentSubmissionResponse response = submissionService.updateGradeSubmission(
+                    submissionId, marks, authentication.getName());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -5,19 +5,35 @@ import com.jaffardev.MicroLMS.dto.*;
 import com.jaffardev.MicroLMS.model.Course;
 import com.jaffardev.MicroLMS.model.User;
 import com.jaffardev.MicroLMS.repository.UserRepository;
+import com.jaffardev.MicroLMS.service.ContentVersionService;
 import com.jaffardev.MicroLMS.service.CourseService;
-import com.jaffardev.MicroLMS.utils.JwtUtils;
+import com.jaffardev.MicroLMS.service.GradebookService;
+import com.jaffardev.MicroLMS.service.RosterImportService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static com.jaffardev.MicroLMS.controllers.Etags.notModified;
+import static com.jaffardev.MicroLMS.controllers.Etags.revalidated;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,8 +41,11 @@ import java.util.Map;
 @Slf4j
 public class CourseController {
     private final CourseService courseService;
+    private final RosterImportService rosterImportService;
+    private final GradebookService gradebookService;
+    private final ContentVersionService contentVersionService;
     private final UserRepository userRepository;
-    private final JwtUtils jwtUtils;
+    private final StreamingExports streamingExports;
 
     @PostMapping("/create")
     @PreAuthorize("hasRole('TEACHER')")
@@ -58,14 +77,13 @@ public class CourseController {
 
     @PostMapping("/enroll")
     public ResponseEntity<?> enrollStudent(@RequestBody EnrollmentRequest request,
-                                           @RequestHeader("Authorization") String authHeader) {
+                                           Authentication authentication) {
         try {
-            String token = authHeader.substring(7);  // remove "Bearer "
-            String email = jwtUtils.extractEmail(token);
+            String email = authentication.getName();
 
-            courseService.enrollStudentToCourse(email, request.getInviteCode());
+            boolean enrolled = courseService.enrollStudentToCourse(email, request.getInviteCode());
 
-            return ResponseEntity.ok("Enrollment successful");
+            return ResponseEntity.ok(enrolled ? "Enrollment successful" : "Already enrolled in the course");
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -73,38 +91,90 @@ public class CourseController {
 
     @DeleteMapping("/unenroll")
     public ResponseEntity<?> unenrollStudent(@RequestBody UnenrollRequest request,
-                                             @RequestHeader("Authorization") String authHeader) {
+                                             Authentication authentication) {
         try {
-            String token = authHeader.substring(7);
-            String teacherEmail = jwtUtils.extractEmail(token);
+            String teacherEmail = authentication.getName();
 
-            courseService.unenrollStudentFromCourse(request.getCourseId(), teacherEmail, request.getStudentEmail());
-            return ResponseEntity.ok("Student unenrolled successfully");
+            boolean removed = courseService.unenrollStudentFromCourse(request.getCourseId(), teacherEmail,
+                    request.getStudentEmail());
+            return ResponseEntity.ok(removed ? "Student unenrolled successfully" : "Student is not enrolled in this course");
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // CSV with email,fullName[,password] per line, the report has one entry per data row
+    @PostMapping(value = "/{courseId}/roster/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> importRoster(@PathVariable Long courseId,
+                                          @RequestPart("file") MultipartFile file,
+                                          Authentication authentication) {
+        try {
+            String teacherEmail = authentication.getName();
+            RosterImportResponse report = rosterImportService.importRoster(courseId, teacherEmail,
+                    file.getInputStream());
+            return ResponseEntity.ok(report);
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/list-courses")
-    public ResponseEntity<?> getMyCourses(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getMyCourses(@RequestParam(required = false) Set<String> fields,
+                                          Authentication authentication, WebRequest webRequest) {
         try {
-            String token = authHeader.substring(7);
-            String email = jwtUtils.extractEmail(token);
-            List<ListCoursesResponse> courses = courseService.getCoursesByUserEmail(email);
-            return ResponseEntity.ok(courses);
+            String email = authentication.getName();
+            String etag = contentVersionService.courseListEtag(email);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            List<ListCoursesResponse> courses = courseService.getCoursesByUserEmail(email, fields);
+            return revalidated(etag).body(courses);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Keyset paged listing: pass nextAfterId back as afterId, fields=assignments,students picks the extras
+    @GetMapping("/list-courses/page")
+    public ResponseEntity<?> getMyCoursePage(@RequestParam(defaultValue = "0") Long afterId,
+                                             @RequestParam(defaultValue = "20") int size,
+                                             @RequestParam(required = false) Set<String> fields,
+                                             Authentication authentication) {
+        try {
+            return ResponseEntity.ok(courseService.getCoursePage(authentication.getName(), afterId, size, fields));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{courseId}/students")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getEnrolledStudents(@PathVariable Long courseId,
+                                                 @RequestParam(defaultValue = "0") Long afterId,
+                                                 @RequestParam(defaultValue = "20") int size,
+                                                 Authentication authentication) {
+        try {
+            return ResponseEntity.ok(courseService.getEnrolledStudents(courseId, authentication.getName(), afterId, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{courseId}")
     public ResponseEntity<?> getCourse(@PathVariable Long courseId,
-                                       @RequestHeader("Authorization") String authHeader) {
+                                       @RequestParam(required = false) Set<String> fields,
+                                       Authentication authentication,
+                                       WebRequest webRequest) {
         try {
-            String token = authHeader.substring(7);
-            String email = jwtUtils.extractEmail(token);
-            GetCourseResponse c = courseService.getCourse(courseId, email);
-            return ResponseEntity.ok(c);
+            String email = authentication.getName();
+            // answered from the course's content version before anything is loaded
+            String etag = contentVersionService.courseEtag(courseId, email);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            GetCourseResponse c = courseService.getCourse(courseId, email, fields);
+            return revalidated(etag).body(c);
         }catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -112,10 +182,9 @@ public class CourseController {
 
     @DeleteMapping("/{courseId}")
     public ResponseEntity<?> deleteCourse(@PathVariable Long courseId,
-                                          @RequestHeader("Authorization") String authHeader) {
+                                          Authentication authentication) {
         try {
-            String token = authHeader.substring(7); // remove "Bearer "
-            String email = jwtUtils.extractEmail(token);
+            String email = authentication.getName();
 
             courseService.deleteCourse(courseId, email);
             return ResponseEntity.ok("Course deleted successfully");
@@ -124,12 +193,42 @@ public class CourseController {
         }
     }
 
+    @GetMapping("/{courseId}/gradebook")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getGradebook(@PathVariable Long courseId, Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            GradebookResponse gradebook = gradebookService.getGradebook(courseId, email);
+            return ResponseEntity.ok(gradebook);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{courseId}/gradebook/export")
+    @PreAuthorize("hasRole('TEACHER')")
+    public WebAsyncTask<ResponseEntity<?>> exportGradebook(@PathVariable Long courseId, Authentication authentication,
+                                                           HttpServletResponse response) {
+        return streamingExports.stream(response, () -> {
+            try {
+                StreamingResponseBody body = gradebookService.exportCsv(courseId, authentication.getName());
+                return ResponseEntity.ok()
+                        .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("course-" + courseId + "-gradebook.csv").build().toString())
+                        .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                        .body(body);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
     @GetMapping("/getSpecialInfo")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<?> getProfileSpecialInfo(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getProfileSpecialInfo(Authentication authentication) {
         try {
-            String token = authHeader.substring(7);
-            String email = jwtUtils.extractEmail(token);
+            String email = authentication.getName();
             ProfileSpecialInfoResponse res = courseService.getProfileSpecialInfo(email);
             return ResponseEntity.ok(res);
         }catch (RuntimeException e) {
@@ -0,0 +1,28 @@
+package com.jaffardev.MicroLMS.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Responses for the polled endpoints whose ETag comes from ContentVersionService. no-cache makes the
+ * client revalidate on every poll; an unchanged resource then costs a 304 with no body.
+ */
+final class Etags {
+
+    private Etags() {
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+
+    static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+}
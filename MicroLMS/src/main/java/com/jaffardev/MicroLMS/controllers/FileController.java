@@ -0,0 +1,128 @@
+package com.jaffardev.MicroLMS.controllers;
+
+import com.jaffardev.MicroLMS.service.FileAccessService;
+import com.jaffardev.MicroLMS.storage.ServedFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves uploaded files under the same "/uploads/..." paths stored on assignments and submissions,
+ * after checking course membership. Supports single byte ranges and conditional requests; bodies are
+ * handed to Tomcat's sendfile when the connector offers it, otherwise copied with transferTo.
+ */
+@RestController
+@RequiredArgsConstructor
+public class FileController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // File names carry a random UUID and are never overwritten, so a copy never goes stale
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final FileAccessService fileAccessService;
+
+    @GetMapping("/uploads/**")
+    @PreAuthorize("hasAnyRole('TEACHER','STUDENT')")
+    public void download(HttpServletRequest request, HttpServletResponse response,
+                         Authentication authentication) throws IOException {
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        if (!fileAccessService.canAccess(path, authentication.getName())) {
+            writeError(response, HttpServletResponse.SC_FORBIDDEN, "You are not allowed to access this file");
+            return;
+        }
+        Optional<ServedFile> found = fileAccessService.resolve(path);
+        if (found.isEmpty()) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "File not found");
+            return;
+        }
+        ServedFile file = found.get();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(file.getEtag())) {
+            return; // 304, ETag already set
+        }
+
+        long size = file.getSize();
+        long start = 0;
+        long end = size - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(file.getEtag()))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // malformed ranges are ignored, the whole file is sent
+            }
+            // several ranges are answered with the whole file, a multipart body would rule out sendfile
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                } catch (IllegalArgumentException e) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFilename())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(file.getFilename(), StandardCharsets.UTF_8).build().toString());
+        response.setContentLengthLong(end - start + 1);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat passes the file to the kernel once this method returns, nothing crosses the heap
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    break; // file shrank underneath us
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\": \"" + message + "\"}");
+    }
+}
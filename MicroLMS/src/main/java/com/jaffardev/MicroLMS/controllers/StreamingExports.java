@@ -0,0 +1,46 @@
+package com.jaffardev.MicroLMS.controllers;
+
+import com.jaffardev.MicroLMS.config.AsyncConfig;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs a download on the export pool as a WebAsyncTask with the export timeout, so only exports get the
+ * long timeout. A response whose body is a StreamingResponseBody is written straight to the servlet
+ * response from the pool thread; any other response (the usual error map) is rendered as normal.
+ */
+@Component
+class StreamingExports {
+
+    private final AsyncTaskExecutor executor;
+    private final long timeoutMillis;
+
+    StreamingExports(@Qualifier(AsyncConfig.EXPORT_EXECUTOR) AsyncTaskExecutor executor,
+                     @Value("${app.export.timeout:30m}") Duration timeout) {
+        this.executor = executor;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    WebAsyncTask<ResponseEntity<?>> stream(HttpServletResponse response, Callable<ResponseEntity<?>> export) {
+        return new WebAsyncTask<>(timeoutMillis, executor, () -> {
+            ResponseEntity<?> entity = export.call();
+            if (!(entity.getBody() instanceof StreamingResponseBody body)) {
+                return entity;
+            }
+            response.setStatus(entity.getStatusCode().value());
+            entity.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null; // already written
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class AssignmentDetailRow {
+    private Long id;
+    private String title;
+    private String description;
+    private LocalDateTime dueDate;
+    private Integer maxMarks;
+}
@@ -0,0 +1,26 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentGradeStatsResponse {
+    private Long assignmentId;
+    private int maxMarks;
+    private long enrolled;
+    private long submitted;
+    private long graded;
+    private Double submissionRate;  // submitted / enrolled
+    private Double average;
+    private Double median;          // exact up to 100 marks, bucket midpoint above that
+    private Integer min;
+    private Integer max;
+    private List<HistogramBucket> histogram;
+}
@@ -0,0 +1,15 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AssignmentGradingRow {
+    private Long assignmentId;
+    private String title;
+    private Integer maxMarks;
+    private Long courseId;
+    private String courseTitle;
+    private Long teacherId;
+}
@@ -19,6 +19,7 @@ public class AssignmentInCourseResponse {
     private List<String> materials;
     private Long courseId;
     private List<Long> submissions;
+    private Long submissionCount;
     private boolean isSubmittedByStudent;
     private LocalDateTime submissionDate;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat assignment row for the dashboard listing. The submission count is aggregated in SQL and
+ * the "mine" columns come from a join on the current user's own submission only.
+ */
+@Data
+@AllArgsConstructor
+public class AssignmentListingRow {
+    private Long id;
+    private Long courseId;
+    private String title;
+    private String description;
+    private LocalDateTime dueDate;
+    private Integer maxMarks;
+    private Long submissionCount;
+    private Long mySubmissionId;
+    private LocalDateTime mySubmittedAt;
+    private Integer myAcquiredMarks;
+}
@@ -0,0 +1,16 @@
+package com.jaffardev.MicroLMS.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkGradeItem {
+    @NotNull(message = "submission id cannot be null.")
+    private Long submissionId;
+    @NotNull(message = "marks cannot be null.")
+    private Integer marks;
+}
@@ -0,0 +1,19 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkGradeItemResult {
+    public static final String GRADED = "GRADED";       // had no marks before
+    public static final String REGRADED = "REGRADED";   // marks replaced
+    public static final String FAILED = "FAILED";
+
+    private Long submissionId;
+    private Integer marks;
+    private String status;
+    private String message;
+}
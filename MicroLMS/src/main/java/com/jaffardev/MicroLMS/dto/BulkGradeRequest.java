@@ -0,0 +1,13 @@
+package com.jaffardev.MicroLMS.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkGradeRequest {
+    @NotEmpty(message = "grades cannot be empty.")
+    private List<@Valid BulkGradeItem> grades;
+}
@@ -0,0 +1,28 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkGradeResponse {
+    private Long assignmentId;
+    private int graded;
+    private int regraded;
+    private int failed;
+    private List<BulkGradeItemResult> results = new ArrayList<>();
+
+    public BulkGradeResponse(Long assignmentId) {
+        this.assignmentId = assignmentId;
+    }
+
+    public void add(BulkGradeItemResult result) {
+        results.add(result);
+        switch (result.getStatus()) {
+            case BulkGradeItemResult.GRADED -> graded++;
+            case BulkGradeItemResult.REGRADED -> regraded++;
+            default -> failed++;
+        }
+    }
+}
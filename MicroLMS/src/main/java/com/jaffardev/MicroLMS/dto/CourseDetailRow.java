@@ -0,0 +1,16 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Course header for the cached detail view; teacherId lets a teacher rename evict their courses. */
+@Data
+@AllArgsConstructor
+public class CourseDetailRow {
+    private Long id;
+    private String title;
+    private String description;
+    private String inviteCode;
+    private Long teacherId;
+    private String teacherName;
+}
@@ -0,0 +1,17 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Flat course row for the dashboard listing, filled by a JPQL constructor expression.
+ */
+@Data
+@AllArgsConstructor
+public class CourseListingRow {
+    private Long id;
+    private String title;
+    private String description;
+    private String inviteCode;
+    private String teacherName;
+}
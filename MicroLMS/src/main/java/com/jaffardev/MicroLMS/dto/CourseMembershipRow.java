@@ -0,0 +1,13 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** The user's id next to the course's teacher id and whether the user is enrolled, for access checks. */
+@Data
+@AllArgsConstructor
+public class CourseMembershipRow {
+    private Long userId;
+    private Long teacherId;
+    private Boolean enrolled;
+}
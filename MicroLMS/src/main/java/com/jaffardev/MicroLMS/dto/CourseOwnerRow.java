@@ -0,0 +1,14 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Just enough of a course to authorize a change against it, without loading the entity.
+ */
+@Data
+@AllArgsConstructor
+public class CourseOwnerRow {
+    private Long courseId;
+    private Long teacherId;
+}
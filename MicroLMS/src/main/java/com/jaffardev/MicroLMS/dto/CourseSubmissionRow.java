@@ -0,0 +1,16 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/** A submission within a course, the per-user part merged into the cached course detail. */
+@Data
+@AllArgsConstructor
+public class CourseSubmissionRow {
+    private Long assignmentId;
+    private Long submissionId;
+    private LocalDateTime submittedAt;
+    private Integer acquiredMarks;
+}
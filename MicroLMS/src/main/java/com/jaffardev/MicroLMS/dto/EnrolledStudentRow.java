@@ -0,0 +1,12 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EnrolledStudentRow {
+    private Long courseId;
+    private String fullName;
+    private String email;
+}
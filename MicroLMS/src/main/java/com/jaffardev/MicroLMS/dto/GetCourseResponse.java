@@ -1,5 +1,6 @@
 package com.jaffardev.MicroLMS.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.jaffardev.MicroLMS.model.Assignment;
 import com.jaffardev.MicroLMS.model.User;
 import jakarta.persistence.*;
@@ -14,6 +15,7 @@ import java.util.*;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GetCourseResponse {
     private String title;
     private String description;
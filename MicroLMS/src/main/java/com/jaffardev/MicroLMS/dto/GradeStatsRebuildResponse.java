@@ -0,0 +1,15 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeStatsRebuildResponse {
+    private int checked;
+    private List<Long> mismatched; // assignments whose maintained stats differed from a full recount
+}
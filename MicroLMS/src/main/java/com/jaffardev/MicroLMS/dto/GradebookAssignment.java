@@ -0,0 +1,22 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A gradebook column, with the per-assignment totals filled in once all rows are read. */
+@Data
+@NoArgsConstructor
+public class GradebookAssignment {
+    private Long id;
+    private String title;
+    private Integer maxMarks;
+    private int submitted;
+    private int graded;
+    private Double averageMarks; // over graded submissions, null if none
+
+    public GradebookAssignment(Long id, String title, Integer maxMarks) {
+        this.id = id;
+        this.title = title;
+        this.maxMarks = maxMarks;
+    }
+}
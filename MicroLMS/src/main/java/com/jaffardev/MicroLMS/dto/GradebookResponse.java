@@ -0,0 +1,20 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Students x assignments marks for a course.
+ * marks.get(i)[j] is the mark of students.get(i) for assignments.get(j), null when not graded;
+ * the names are sent once in the headers instead of once per cell.
+ */
+@Data
+public class GradebookResponse {
+    private Long courseId;
+    private int courseMaxMarks;
+    private List<GradebookAssignment> assignments = new ArrayList<>();
+    private List<GradebookStudent> students = new ArrayList<>();
+    private List<Integer[]> marks = new ArrayList<>();
+}
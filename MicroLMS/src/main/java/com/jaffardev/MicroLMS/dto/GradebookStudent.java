@@ -0,0 +1,18 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A gradebook row header with the student's totals. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradebookStudent {
+    private Long id;
+    private String fullName;
+    private String email;
+    private int submitted;
+    private int graded;
+    private int totalMarks;
+}
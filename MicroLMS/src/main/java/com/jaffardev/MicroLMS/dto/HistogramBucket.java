@@ -0,0 +1,12 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class HistogramBucket {
+    private int from;   // inclusive
+    private int to;     // inclusive
+    private int count;
+}
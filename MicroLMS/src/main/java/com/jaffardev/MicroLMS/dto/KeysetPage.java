@@ -0,0 +1,36 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a listing ordered by id. Pass nextAfterId back as afterId for the next page; it is null
+ * on the last one. Pages are read with "id > afterId ORDER BY id LIMIT size + 1", so every page costs
+ * the same index range scan however deep the client scrolls.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> items = new ArrayList<>();
+    private Long nextAfterId;
+
+    /** rows holds up to pageSize + 1 entries, the extra one only tells that another page follows. */
+    public static <R, T> KeysetPage<T> of(List<R> rows, int pageSize, Function<R, Long> idOf, Function<R, T> map) {
+        boolean more = rows.size() > pageSize;
+        List<R> page = more ? rows.subList(0, pageSize) : rows;
+        KeysetPage<T> result = new KeysetPage<>();
+        for (R row : page) {
+            result.getItems().add(map.apply(row));
+        }
+        if (more) {
+            result.setNextAfterId(idOf.apply(page.get(page.size() - 1)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Assignment the student has not submitted yet, as read by the NOT EXISTS queries in
+ * AssignmentRepository. Materials are fetched separately for the whole page.
+ */
+@Data
+@AllArgsConstructor
+public class RemainingAssignmentRow {
+    private Long id;
+    private Long courseId;
+    private String courseTitle;
+    private String title;
+    private String description;
+    private LocalDateTime dueDate;
+    private Integer maxMarks;
+}
@@ -0,0 +1,22 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of remaining assignments in due date order. When more may follow, nextAfterDueDate and
+ * nextAfterId are the keyset to pass back as afterDueDate/afterId; both are null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemainingAssignmentsPage {
+    private List<AssignmentInCourseResponse> assignments = new ArrayList<>();
+    private LocalDateTime nextAfterDueDate;
+    private Long nextAfterId;
+}
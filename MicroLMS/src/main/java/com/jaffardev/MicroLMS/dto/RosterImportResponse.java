@@ -0,0 +1,25 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RosterImportResponse {
+    private int created;
+    private int enrolled;
+    private int alreadyEnrolled;
+    private int failed;
+    private List<RosterImportRowResult> rows = new ArrayList<>();
+
+    public void add(RosterImportRowResult result) {
+        rows.add(result);
+        switch (result.getStatus()) {
+            case RosterImportRowResult.CREATED -> created++;
+            case RosterImportRowResult.ENROLLED -> enrolled++;
+            case RosterImportRowResult.ALREADY_ENROLLED -> alreadyEnrolled++;
+            default -> failed++;
+        }
+    }
+}
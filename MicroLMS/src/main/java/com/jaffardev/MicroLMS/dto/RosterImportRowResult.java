@@ -0,0 +1,20 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterImportRowResult {
+    public static final String CREATED = "CREATED";                   // new account, enrolled
+    public static final String ENROLLED = "ENROLLED";                 // existing student, enrolled
+    public static final String ALREADY_ENROLLED = "ALREADY_ENROLLED";
+    public static final String FAILED = "FAILED";
+
+    private int line;
+    private String email;
+    private String status;
+    private String message;
+}
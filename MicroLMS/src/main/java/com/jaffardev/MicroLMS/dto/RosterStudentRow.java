@@ -0,0 +1,12 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RosterStudentRow {
+    private Long id;
+    private String fullName;
+    private String email;
+}
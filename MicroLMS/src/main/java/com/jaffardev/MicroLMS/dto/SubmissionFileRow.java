@@ -0,0 +1,13 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SubmissionFileRow {
+    private Long studentId;
+    private String studentName;
+    private String studentEmail;
+    private String filePath;
+}
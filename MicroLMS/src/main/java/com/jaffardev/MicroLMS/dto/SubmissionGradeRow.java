@@ -0,0 +1,13 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SubmissionGradeRow {
+    private Long submissionId;
+    private Long studentId;
+    private String studentEmail;
+    private Integer acquiredMarks;
+}
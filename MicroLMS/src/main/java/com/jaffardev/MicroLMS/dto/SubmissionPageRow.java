@@ -0,0 +1,16 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SubmissionPageRow {
+    private Long submissionId;
+    private Long studentId;
+    private String studentEmail;
+    private LocalDateTime submittedAt;
+    private Integer acquiredMarks;
+}
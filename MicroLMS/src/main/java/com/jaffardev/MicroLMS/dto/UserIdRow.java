@@ -0,0 +1,11 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserIdRow {
+    private Long id;
+    private String email;
+}
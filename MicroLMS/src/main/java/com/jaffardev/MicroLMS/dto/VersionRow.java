@@ -0,0 +1,12 @@
+package com.jaffardev.MicroLMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Row id next to its content version, what ETags are computed from. */
+@Data
+@AllArgsConstructor
+public class VersionRow {
+    private Long id;
+    private Long version;
+}
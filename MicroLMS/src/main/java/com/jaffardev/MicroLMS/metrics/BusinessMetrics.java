@@ -0,0 +1,32 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business event counters, lms.&lt;event&gt;{outcome}: enrollments, submissions, gradings,
+ * registrations, logins, emails. Services count an outcome once it is decided, a rejection right
+ * before it is thrown. Unexpected failures are not counted here, they show up in the exception tag of
+ * the method's lms.service timer.
+ */
+@Component
+@RequiredArgsConstructor
+public class BusinessMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public void count(String event, String outcome) {
+        count(event, outcome, 1);
+    }
+
+    public void count(String event, String outcome, long amount) {
+        if (amount > 0) {
+            Counter.builder("lms." + event)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(amount);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+/**
+ * Adds each hot endpoint's latency objective as a bucket boundary of its http.server.requests
+ * histogram, so the share of requests within the objective is exact and can be alerted on
+ * (http_server_requests_seconds_bucket{uri=...,le=&lt;objective&gt;} over _count).
+ */
+@Component
+@RequiredArgsConstructor
+public class LatencySloMeterFilter implements MeterFilter {
+
+    private final LatencySloProperties slo;
+
+    @Override
+    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (!id.getName().equals("http.server.requests")) {
+            return config;
+        }
+        Duration objective = slo.of(id.getTag("method"), id.getTag("uri"));
+        if (objective == null) {
+            return config;
+        }
+        double[] existing = config.getServiceLevelObjectiveBoundaries();
+        double[] boundaries = DoubleStream.concat(
+                existing == null ? DoubleStream.empty() : Arrays.stream(existing),
+                DoubleStream.of(objective.toNanos())).distinct().sorted().toArray();
+        return DistributionStatisticConfig.builder()
+                .serviceLevelObjectives(boundaries)
+                .build()
+                .merge(config);
+    }
+}
@@ -0,0 +1,22 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.latency-slo")
+public class LatencySloProperties {
+
+    /** Latency objectives of hot endpoints, keyed like "GET /api/course/{courseId}". */
+    private Map<String, Duration> endpoints = new HashMap<>();
+
+    public Duration of(String method, String uri) {
+        return endpoints.get(method + " " + uri);
+    }
+}
@@ -0,0 +1,88 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements, rows and entities of every request (authentication included) and
+ * publishes them as sql.request.statements|rows|entities{method,uri} histograms. A request over its
+ * endpoint's statement budget, or running one statement repeat-threshold times (the usual shape of an
+ * N+1 lazy traversal), is logged and counted in sql.request.flagged{method,uri,reason}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10) // outside the security filter chain
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudgetProperties budget;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStats stats = SqlStats.open()) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                record(request, stats);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        summary("sql.request.statements", "SQL statements per request", tags).record(stats.getStatements());
+        summary("sql.request.rows", "Rows fetched per request", tags).record(stats.getRows());
+        summary("sql.request.entities", "Entities hydrated per request", tags).record(stats.getEntities());
+
+        String endpoint = request.getMethod() + " " + uri;
+        int allowed = budget.budgetOf(endpoint);
+        if (stats.getStatements() > allowed) {
+            flagged(tags, "budget").increment();
+            log.warn("SQL budget exceeded by " + endpoint + ": " + stats.getStatements() + " statements (budget "
+                    + allowed + "), " + stats.getRows() + " rows, " + stats.getEntities() + " entities");
+        }
+        Map<String, Integer> repeated = stats.repeated(budget.getRepeatThreshold());
+        if (!repeated.isEmpty()) {
+            flagged(tags, "repeated").increment();
+            repeated.forEach((sql, count) ->
+                    log.warn("Possible N+1 in " + endpoint + ", ran " + count + " times: " + sql));
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, Tags tags) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(10_000.0)
+                .register(meterRegistry);
+    }
+
+    private Counter flagged(Tags tags, String reason) {
+        return Counter.builder("sql.request.flagged")
+                .description("Requests over their SQL budget or repeating a statement")
+                .tags(tags.and("reason", reason))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sql-budget")
+public class SqlBudgetProperties {
+
+    /** Statements allowed per request for endpoints without their own entry. */
+    private int maxStatements = 30;
+
+    /** How often one statement may run in a request before it is reported as a likely N+1. */
+    private int repeatThreshold = 10;
+
+    /** Per endpoint budgets, keyed like "GET /api/course/{courseId}". */
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int budgetOf(String endpoint) {
+        return endpoints.getOrDefault(endpoint, maxStatements);
+    }
+}
@@ -0,0 +1,75 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static com.jaffardev.MicroLMS.utils.JdbcProxies.proxy;
+
+/**
+ * Reports every statement executed and every row read through it to SqlStats, whether it came from
+ * Hibernate or a JdbcTemplate. Statements and result sets are only wrapped while a scope is open, so
+ * schedulers and startup work use the driver's objects directly.
+ */
+class SqlCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    SqlCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    // The context only sees this wrapper and closes it on shutdown, the pool behind it has to go with it
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (result instanceof Statement statement && SqlStats.active()) {
+                // prepareStatement/prepareCall know their SQL now, a plain Statement gets it per execute
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return countingStatement(method.getReturnType(), statement, sql);
+            }
+            return result;
+        });
+    }
+
+    private static Object countingStatement(Class<?> type, Statement statement, String preparedSql) {
+        return proxy(type, statement, (method, args, result) -> {
+            if (method.getName().startsWith("execute")) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String s ? s : "(batch)";
+                SqlStats.statementExecuted(sql);
+            }
+            if (result instanceof ResultSet resultSet) {
+                return countingResultSet(resultSet);
+            }
+            return result;
+        });
+    }
+
+    private static ResultSet countingResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (method, args, result) -> {
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                SqlStats.rowFetched();
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements, fetched rows and hydrated entities of the current scope: an HTTP request
+ * (SqlBudgetFilter) or whatever block a test measures. Scopes nest on a thread, closing one adds its
+ * numbers to the enclosing one. Fed by SqlCountingDataSource and EntityLoadCounter; without an open
+ * scope nothing is counted.
+ */
+public final class SqlStats implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private final SqlStats parent;
+    private int statements;
+    private long rows;
+    private long entities;
+    private final Map<String, Integer> executions = new HashMap<>(); // sql -> times it ran
+
+    private SqlStats(SqlStats parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStats open() {
+        SqlStats stats = new SqlStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    static void statementExecuted(String sql) {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void rowFetched() {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rows++;
+        }
+    }
+
+    static void entityLoaded() {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entities++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getEntities() {
+        return entities;
+    }
+
+    /** Statements that ran at least threshold times, most repeated first: the N+1 suspects. */
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> repeated.put(e.getKey(), e.getValue()));
+        return Collections.unmodifiableMap(repeated);
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(parent);
+        parent.statements += statements;
+        parent.rows += rows;
+        parent.entities += entities;
+        executions.forEach((sql, count) -> parent.executions.merge(sql, count, Integer::sum));
+    }
+}
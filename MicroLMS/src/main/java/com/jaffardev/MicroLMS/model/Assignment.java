@@ -1,10 +1,15 @@
 package com.jaffardev.MicroLMS.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,11 +19,15 @@ import java.util.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode(exclude = {"course", "submissions"})
-@Table(name = "assignments")
+@EqualsAndHashCode(exclude = {"course", "submissions", "contentVersion"})
+// Remaining/due-soon listings walk a course's assignments in due date order
+@Table(name = "assignments", indexes = @Index(name = "idx_assignments_course_due", columnList = "course_id, due_date, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assignments")
 public class Assignment {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignments")
+    @SequenceGenerator(name = "assignments", sequenceName = IdSequences.ASSIGNMENTS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     private String description;
@@ -30,6 +39,7 @@ public class Assignment {
     private LocalDateTime dueDate;
     // Store uploaded files (could be URLs if you use cloud storage)
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assignments.materials")
     @CollectionTable(name = "assignment_materials", joinColumns = @JoinColumn(name = "assignment_id"))
     @Column(name = "file_path")
     private Set<String> materials = new HashSet<>();
@@ -40,4 +50,13 @@ public class Assignment {
 
     @OneToMany(mappedBy = "assignment", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<AssignmentSubmission> submissions = new LinkedHashSet<>();
+
+    // Bumped in SQL by ContentVersionService on every change visible in the assignment view, never written by the entity.
+    // Only mapped so JPQL can project it (VersionRow, findContentVersion): the bump doesn't evict this entity
+    // from the second-level cache, so a loaded instance may hold a stale value and there is no accessor.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "content_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private long contentVersion;
 }
@@ -0,0 +1,35 @@
+package com.jaffardev.MicroLMS.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running grade aggregates for one assignment, kept current by the submit/unsubmit/grade paths.
+ * histogram holds graded submissions per mark bucket (see GradeHistogram); min, max and quantiles are
+ * read off it, so none of them need the submissions themselves.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "assignment_grade_stats")
+public class AssignmentGradeStats {
+    @Id
+    private Long assignmentId;
+
+    private Long courseId;
+
+    private int maxMarks; // bucket layout of histogram is derived from this
+
+    private long submittedCount;
+
+    private long gradedCount;
+
+    private long sumMarks;
+
+    private int[] histogram;
+}
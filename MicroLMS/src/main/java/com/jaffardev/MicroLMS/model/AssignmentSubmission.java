@@ -15,10 +15,14 @@ import java.util.List;
 @NoArgsConstructor
 @EqualsAndHashCode(exclude = "assignment")
 @AllArgsConstructor
+// One submission per student and assignment, the key also backs the per-student "has submitted" probes
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_submission_assignment_student",
+        columnNames = {"assignment_id", "student_id"}))
 public class AssignmentSubmission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "submissions")
+    @SequenceGenerator(name = "submissions", sequenceName = IdSequences.SUBMISSIONS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -41,5 +45,10 @@ public class AssignmentSubmission {
 
     @Enumerated(EnumType.STRING)
     private SubmissionStatus status = SubmissionStatus.SUBMITTED; // Defaults to SUBMITTED for production safety
+
+    // Bumped in SQL by ContentVersionService on every change visible in the submission status, never written by the entity
+    @Column(name = "content_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private long contentVersion;
 }
 
@@ -0,0 +1,27 @@
+package com.jaffardev.MicroLMS.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Maps a logical "/uploads/..." path, as stored on Assignment.materials and
+ * AssignmentSubmission.filePaths, to the blob holding its bytes.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "blob_links")
+public class BlobLink {
+    @Id
+    @Column(length = 1024)
+    private String logicalPath;
+
+    @Column(length = 64, nullable = false)
+    private String sha256;
+}
@@ -2,10 +2,15 @@ package com.jaffardev.MicroLMS.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.*;
 
@@ -13,12 +18,15 @@ import java.util.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode(exclude = {"assignments", "students"})
+@EqualsAndHashCode(exclude = {"assignments", "students", "contentVersion"})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "courses")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "courses")
 public class Course {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses")
+    @SequenceGenerator(name = "courses", sequenceName = IdSequences.COURSES, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     private String title;
@@ -35,10 +43,20 @@ public class Course {
     @JoinTable(
             name = "course_students",
             joinColumns = @JoinColumn(name = "course_id"),
-            inverseJoinColumns = @JoinColumn(name = "student_id")
+            inverseJoinColumns = @JoinColumn(name = "student_id"),
+            uniqueConstraints = @UniqueConstraint(columnNames = {"course_id", "student_id"})
     )
     private Set<User> students = new HashSet<>();
 
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<Assignment> assignments = new LinkedHashSet<>();
+
+    // Bumped in SQL by ContentVersionService on every change visible in the course views, never written by the entity.
+    // Only mapped so JPQL can project it (VersionRow, findContentVersion): the bump doesn't evict this entity
+    // from the second-level cache, so a loaded instance may hold a stale value and there is no accessor.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "content_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private long contentVersion;
 }
@@ -0,0 +1,20 @@
+package com.jaffardev.MicroLMS.model;
+
+/**
+ * Sequences behind the generated ids. Hibernate's pooled optimizer takes ALLOCATION_SIZE ids per
+ * nextval, so the ids of a bulk insert are known up front and the INSERTs can go out as JDBC batches
+ * (an IDENTITY column needs one round-trip per row to read the id back). The sequences are created by
+ * the db/migration scripts with a matching INCREMENT BY.
+ */
+public final class IdSequences {
+    public static final int ALLOCATION_SIZE = 100;
+
+    public static final String USERS = "user_ids";
+    public static final String COURSES = "course_ids";
+    public static final String ASSIGNMENTS = "assignment_ids";
+    public static final String SUBMISSIONS = "submission_ids";
+    public static final String OUTBOX_EMAILS = "outbox_email_ids";
+
+    private IdSequences() {
+    }
+}
@@ -0,0 +1,7 @@
+package com.jaffardev.MicroLMS.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    DEAD    // gave up after the maximum number of attempts
+}
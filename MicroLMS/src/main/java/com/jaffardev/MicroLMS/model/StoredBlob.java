@@ -0,0 +1,32 @@
+package com.jaffardev.MicroLMS.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One physical upload, keyed by the SHA-256 of its content.
+ * refCount is the number of logical paths (materials / submission files) pointing at it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stored_blobs")
+public class StoredBlob {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    private long size;
+
+    private long refCount;
+
+    private LocalDateTime createdAt;
+}
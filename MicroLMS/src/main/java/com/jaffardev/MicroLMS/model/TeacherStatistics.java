@@ -0,0 +1,26 @@
+package com.jaffardev.MicroLMS.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Denormalized profile counters for a teacher, only used when app.stats.counters-enabled is on.
+ * Rows are created lazily from COUNT queries and then kept up to date by TeacherStatisticsService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "teacher_statistics")
+public class TeacherStatistics {
+    @Id
+    private Long teacherId;
+
+    private long totalCourses;
+    private long totalStudents; // distinct students across all of the teacher's courses
+    private long totalAssignments;
+}
@@ -0,0 +1,27 @@
+package com.jaffardev.MicroLMS.repository;
+
+import com.jaffardev.MicroLMS.model.AssignmentGradeStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface AssignmentGradeStatsRepository extends JpaRepository<AssignmentGradeStats, Long> {
+
+    // Concurrent graders of the same assignment apply their changes one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AssignmentGradeStats s WHERE s.assignmentId = :assignmentId")
+    Optional<AssignmentGradeStats> findForUpdate(@Param("assignmentId") Long assignmentId);
+
+    @Modifying
+    @Query("DELETE FROM AssignmentGradeStats s WHERE s.assignmentId = :assignmentId")
+    int deleteByAssignment(@Param("assignmentId") Long assignmentId);
+
+    @Modifying
+    @Query("DELETE FROM AssignmentGradeStats s WHERE s.courseId = :courseId")
+    int deleteByCourse(@Param("courseId") Long courseId);
+}
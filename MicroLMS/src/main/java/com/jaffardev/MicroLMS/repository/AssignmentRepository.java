@@ -1,15 +1,119 @@
 package com.jaffardev.MicroLMS.repository;
 
+import com.jaffardev.MicroLMS.dto.AssignmentDetailRow;
+import com.jaffardev.MicroLMS.dto.AssignmentGradingRow;
+import com.jaffardev.MicroLMS.dto.AssignmentListingRow;
+import com.jaffardev.MicroLMS.dto.AssignmentMaterialRow;
+import com.jaffardev.MicroLMS.dto.GradebookAssignment;
+import com.jaffardev.MicroLMS.dto.RemainingAssignmentRow;
 import com.jaffardev.MicroLMS.model.Assignment;
 import lombok.NonNull;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
 
 @Repository
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     List<Assignment> findByCourseId(Long courseId);
 
     boolean existsById(@NonNull Long courseId);
+
+    // One row per assignment: count aggregated in SQL, only the given user's own submission joined in
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.AssignmentListingRow(" +
+            "a.id, a.course.id, a.title, a.description, a.dueDate, a.maxMarks, " +
+            "(SELECT COUNT(s) FROM AssignmentSubmission s WHERE s.assignment = a), " +
+            "mine.id, mine.submittedAt, mine.acquiredMarks) " +
+            "FROM Assignment a " +
+            "LEFT JOIN AssignmentSubmission mine ON mine.assignment = a AND mine.student.id = :userId " +
+            "WHERE a.course.id IN :courseIds " +
+            "ORDER BY a.course.id, a.id")
+    List<AssignmentListingRow> findListingRows(@Param("courseIds") Collection<Long> courseIds,
+                                               @Param("userId") Long userId);
+
+    // Everything bulk grading needs about the assignment, in one row
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.AssignmentGradingRow(" +
+            "a.id, a.title, a.maxMarks, c.id, c.title, c.teacher.id) " +
+            "FROM Assignment a JOIN a.course c WHERE a.id = :assignmentId")
+    Optional<AssignmentGradingRow> findGradingRow(@Param("assignmentId") Long assignmentId);
+
+    // Gradebook columns, in the same order GradebookService aggregates the marks
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.GradebookAssignment(a.id, a.title, a.maxMarks) " +
+            "FROM Assignment a WHERE a.course.id = :courseId ORDER BY a.id")
+    List<GradebookAssignment> findGradebookColumns(@Param("courseId") Long courseId);
+
+    @Query("SELECT a.course.id FROM Assignment a WHERE a.id = :assignmentId")
+    Optional<Long> findCourseIdById(@Param("assignmentId") Long assignmentId);
+
+    @Query("SELECT a.contentVersion FROM Assignment a WHERE a.id = :assignmentId")
+    Optional<Long> findContentVersion(@Param("assignmentId") Long assignmentId);
+
+    // Spaces as in CourseRepository.bumpContentVersion
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "content_version"))
+    @Query(value = "UPDATE assignments SET content_version = content_version + 1 WHERE id = :assignmentId",
+            nativeQuery = true)
+    int bumpContentVersion(@Param("assignmentId") Long assignmentId);
+
+    @Query("SELECT a.id FROM Assignment a ORDER BY a.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT COUNT(a) FROM Assignment a WHERE a.course.teacher.id = :teacherId")
+    long countByTeacherId(@Param("teacherId") Long teacherId);
+
+    // --- Assignments the student has not submitted: anti-join on (assignment_id, student_id), keyset on (due_date, id) ---
+
+    String REMAINING_SELECT = "SELECT new com.jaffardev.MicroLMS.dto.RemainingAssignmentRow(" +
+            "a.id, c.id, c.title, a.title, a.description, a.dueDate, a.maxMarks) " +
+            "FROM Assignment a JOIN a.course c ";
+    String NOT_SUBMITTED = "NOT EXISTS (SELECT 1 FROM AssignmentSubmission s " +
+            "WHERE s.assignment.id = a.id AND s.student.id = :studentId) ";
+    String DUE_ORDER = "ORDER BY a.dueDate, a.id";
+
+    @Query(REMAINING_SELECT + "WHERE c.id = :courseId AND " + NOT_SUBMITTED + DUE_ORDER)
+    List<RemainingAssignmentRow> findRemaining(@Param("courseId") Long courseId,
+                                               @Param("studentId") Long studentId,
+                                               Pageable limit);
+
+    @Query(REMAINING_SELECT + "WHERE c.id = :courseId AND " + NOT_SUBMITTED +
+            "AND (a.dueDate > :afterDueDate OR (a.dueDate = :afterDueDate AND a.id > :afterId)) " + DUE_ORDER)
+    List<RemainingAssignmentRow> findRemainingAfter(@Param("courseId") Long courseId,
+                                                    @Param("studentId") Long studentId,
+                                                    @Param("afterDueDate") LocalDateTime afterDueDate,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable limit);
+
+    // Student dashboard: across every enrolled course, due within [from, to)
+    @Query(REMAINING_SELECT + "JOIN c.students st WHERE st.id = :studentId " +
+            "AND a.dueDate >= :from AND a.dueDate < :to AND " + NOT_SUBMITTED + DUE_ORDER)
+    List<RemainingAssignmentRow> findRemainingDueBetween(@Param("studentId") Long studentId,
+                                                         @Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to,
+                                                         Pageable limit);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.AssignmentDetailRow(a.id, a.title, a.description, a.dueDate, a.maxMarks) " +
+            "FROM Assignment a WHERE a.course.id = :courseId ORDER BY a.id")
+    List<AssignmentDetailRow> findDetailRows(@Param("courseId") Long courseId);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.AssignmentDetailRow(a.id, a.title, a.description, a.dueDate, a.maxMarks) " +
+            "FROM Assignment a WHERE a.course.id = :courseId AND a.id > :afterId ORDER BY a.id")
+    List<AssignmentDetailRow> findDetailRowsAfter(@Param("courseId") Long courseId,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable limit);
+
+    // Materials for a whole page of assignments in one query
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.AssignmentMaterialRow(a.id, m) " +
+            "FROM Assignment a JOIN a.materials m WHERE a.id IN :assignmentIds")
+    List<AssignmentMaterialRow> findMaterialRows(@Param("assignmentIds") Collection<Long> assignmentIds);
 }
@@ -1,13 +1,117 @@
 package com.jaffardev.MicroLMS.repository;
 
+import com.jaffardev.MicroLMS.dto.CourseSubmissionRow;
+import com.jaffardev.MicroLMS.dto.MarkCountRow;
+import com.jaffardev.MicroLMS.dto.SubmissionFileRow;
+import com.jaffardev.MicroLMS.dto.SubmissionFilePathRow;
+import com.jaffardev.MicroLMS.dto.SubmissionGradeRow;
+import com.jaffardev.MicroLMS.dto.SubmissionPageRow;
+import com.jaffardev.MicroLMS.dto.VersionRow;
 import com.jaffardev.MicroLMS.model.AssignmentSubmission;
+import com.jaffardev.MicroLMS.model.SubmissionStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
 public interface AssignmentSubmissionRepository extends JpaRepository<AssignmentSubmission, Long> {
     List<AssignmentSubmission> findByAssignmentId(Long assignmentId);
     Optional<AssignmentSubmission> findByAssignmentIdAndStudentId(Long assignmentId, Long studentId);
     boolean existsByAssignmentIdAndStudentId(Long assignmentId, Long studentId);
-}
\ No newline at end of file
+
+    // Submit and unsubmit of the same row take turns, so its status and the submitted count agree
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AssignmentSubmission s WHERE s.assignment.id = :assignmentId AND s.student.id = :studentId")
+    Optional<AssignmentSubmission> findForUpdate(@Param("assignmentId") Long assignmentId,
+                                                 @Param("studentId") Long studentId);
+
+    // Grading reads the old mark under this lock, so the grade statistics move it exactly once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AssignmentSubmission s WHERE s.id = :submissionId")
+    Optional<AssignmentSubmission> findByIdForUpdate(@Param("submissionId") Long submissionId);
+
+    // Bulk grading's lock on its rows before findGradeRows, taken in id order so two bulk gradings can't deadlock
+    @Query(value = "SELECT id FROM assignment_submission WHERE assignment_id = :assignmentId AND id IN :submissionIds " +
+            "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockForGrading(@Param("assignmentId") Long assignmentId,
+                              @Param("submissionIds") Collection<Long> submissionIds);
+
+    long countByAssignmentIdAndStatus(Long assignmentId, SubmissionStatus status);
+
+    // Graded submissions per distinct mark, what the grade statistics are rebuilt from
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.MarkCountRow(s.acquiredMarks, COUNT(s)) " +
+            "FROM AssignmentSubmission s " +
+            "WHERE s.assignment.id = :assignmentId AND s.acquiredMarks IS NOT NULL " +
+            "GROUP BY s.acquiredMarks")
+    List<MarkCountRow> countMarks(@Param("assignmentId") Long assignmentId);
+
+    // Only ids of this assignment come back, so foreign submission ids simply go missing
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.SubmissionGradeRow(s.id, st.id, st.email, s.acquiredMarks) " +
+            "FROM AssignmentSubmission s JOIN s.student st " +
+            "WHERE s.assignment.id = :assignmentId AND s.id IN :submissionIds")
+    List<SubmissionGradeRow> findGradeRows(@Param("assignmentId") Long assignmentId,
+                                           @Param("submissionIds") Collection<Long> submissionIds);
+
+    // One row per file, grouped by student, without loading submissions or users
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.SubmissionFileRow(st.id, st.fullName, st.email, f) " +
+            "FROM AssignmentSubmission s JOIN s.student st JOIN s.filePaths f " +
+            "WHERE s.assignment.id = :assignmentId AND s.status = :status " +
+            "ORDER BY st.fullName, st.id")
+    List<SubmissionFileRow> findFileRows(@Param("assignmentId") Long assignmentId,
+                                         @Param("status") SubmissionStatus status);
+
+    // --- Per-user overlay of the cached course detail ---
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseSubmissionRow(a.id, s.id, s.submittedAt, s.acquiredMarks) " +
+            "FROM AssignmentSubmission s JOIN s.assignment a WHERE a.course.id = :courseId")
+    List<CourseSubmissionRow> findCourseSubmissionRows(@Param("courseId") Long courseId);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseSubmissionRow(a.id, s.id, s.submittedAt, s.acquiredMarks) " +
+            "FROM AssignmentSubmission s JOIN s.assignment a " +
+            "WHERE a.course.id = :courseId AND s.student.id = :studentId")
+    List<CourseSubmissionRow> findCourseSubmissionRowsOfStudent(@Param("courseId") Long courseId,
+                                                                @Param("studentId") Long studentId);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseSubmissionRow(a.id, s.id, s.submittedAt, s.acquiredMarks) " +
+            "FROM AssignmentSubmission s JOIN s.assignment a " +
+            "WHERE a.id IN :assignmentIds AND s.student.id = :studentId")
+    List<CourseSubmissionRow> findSubmissionRowsOfStudent(@Param("assignmentIds") Collection<Long> assignmentIds,
+                                                          @Param("studentId") Long studentId);
+
+    // --- Keyset pages of an assignment's submissions, files only when asked for ---
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.SubmissionPageRow(s.id, st.id, st.email, s.submittedAt, s.acquiredMarks) " +
+            "FROM AssignmentSubmission s JOIN s.student st " +
+            "WHERE s.assignment.id = :assignmentId AND s.id > :afterId " +
+            "ORDER BY s.id")
+    List<SubmissionPageRow> findPageRowsAfter(@Param("assignmentId") Long assignmentId,
+                                              @Param("afterId") Long afterId,
+                                              Pageable limit);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.SubmissionFilePathRow(s.id, f) " +
+            "FROM AssignmentSubmission s JOIN s.filePaths f WHERE s.id IN :submissionIds")
+    List<SubmissionFilePathRow> findFilePathRows(@Param("submissionIds") Collection<Long> submissionIds);
+
+    // --- Content versions for conditional GETs ---
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.VersionRow(s.id, s.contentVersion) " +
+            "FROM AssignmentSubmission s WHERE s.assignment.id = :assignmentId AND s.student.email = :email")
+    Optional<VersionRow> findVersionRow(@Param("assignmentId") Long assignmentId, @Param("email") String email);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "assignment_submission"))
+    @Query(value = "UPDATE assignment_submission SET content_version = content_version + 1 WHERE id IN (:submissionIds)",
+            nativeQuery = true)
+    int bumpContentVersions(@Param("submissionIds") Collection<Long> submissionIds);
+}
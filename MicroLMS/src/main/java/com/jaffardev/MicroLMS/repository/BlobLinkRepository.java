@@ -0,0 +1,7 @@
+package com.jaffardev.MicroLMS.repository;
+
+import com.jaffardev.MicroLMS.model.BlobLink;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BlobLinkRepository extends JpaRepository<BlobLink, String> {
+}
@@ -1,15 +1,29 @@
 package com.jaffardev.MicroLMS.repository;
 
+import com.jaffardev.MicroLMS.dto.CourseDetailRow;
+import com.jaffardev.MicroLMS.dto.CourseListingRow;
+import com.jaffardev.MicroLMS.dto.CourseMembershipRow;
+import com.jaffardev.MicroLMS.dto.CourseOwnerRow;
+import com.jaffardev.MicroLMS.dto.EnrolledStudentRow;
+import com.jaffardev.MicroLMS.dto.RosterStudentRow;
+import com.jaffardev.MicroLMS.dto.VersionRow;
 import com.jaffardev.MicroLMS.model.Course;
 import com.jaffardev.MicroLMS.model.Role;
 import com.jaffardev.MicroLMS.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
 public interface CourseRepository extends JpaRepository<Course, Long> {
     // Get all courses created by a specific teacher
     List<Course> findByTeacher(User teacher);
@@ -23,6 +37,19 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
 
     boolean existsByInviteCode(String inviteCode);
 
+    @Query(value = "SELECT COUNT(*) FROM course_students WHERE course_id = :courseId", nativeQuery = true)
+    long countStudents(@Param("courseId") Long courseId);
+
+    @Query("SELECT s.email FROM Course c JOIN c.students s WHERE c.id = :courseId")
+    List<String> findStudentEmails(@Param("courseId") Long courseId);
+
+    // Course access in one row: no row when either the user or the course does not exist
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseMembershipRow(u.id, c.teacher.id, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM Course e JOIN e.students s WHERE e.id = c.id AND s.id = u.id) " +
+            "THEN true ELSE false END) " +
+            "FROM Course c, User u WHERE c.id = :courseId AND u.email = :email")
+    Optional<CourseMembershipRow> findMembershipRow(@Param("courseId") Long courseId, @Param("email") String email);
+
     @Query("SELECT DISTINCT c FROM Course c " +
             "LEFT JOIN FETCH c.assignments a " +
             "LEFT JOIN FETCH a.submissions " +
@@ -34,4 +61,118 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
             "LEFT JOIN FETCH a.submissions " +
             "WHERE :student MEMBER OF c.students")
     List<Course> findByStudentsContainingOptimized(@Param("student") User student);
+
+    // --- Projection read path for the dashboard listing (no entity hydration) ---
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseListingRow(" +
+            "c.id, c.title, c.description, c.inviteCode, t.fullName) " +
+            "FROM Course c JOIN c.teacher t " +
+            "WHERE t.id = :teacherId " +
+            "ORDER BY c.id")
+    List<CourseListingRow> findListingRowsByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseListingRow(" +
+            "c.id, c.title, c.description, c.inviteCode, t.fullName) " +
+            "FROM Course c JOIN c.teacher t JOIN c.students s " +
+            "WHERE s.id = :studentId " +
+            "ORDER BY c.id")
+    List<CourseListingRow> findListingRowsByStudentId(@Param("studentId") Long studentId);
+
+    // Keyset pages of the same listing: ids above afterId (0 for the first page), limited by the Pageable
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseListingRow(" +
+            "c.id, c.title, c.description, c.inviteCode, t.fullName) " +
+            "FROM Course c JOIN c.teacher t " +
+            "WHERE t.id = :teacherId AND c.id > :afterId " +
+            "ORDER BY c.id")
+    List<CourseListingRow> findListingRowsByTeacherIdAfter(@Param("teacherId") Long teacherId,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable limit);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseListingRow(" +
+            "c.id, c.title, c.description, c.inviteCode, t.fullName) " +
+            "FROM Course c JOIN c.teacher t JOIN c.students s " +
+            "WHERE s.id = :studentId AND c.id > :afterId " +
+            "ORDER BY c.id")
+    List<CourseListingRow> findListingRowsByStudentIdAfter(@Param("studentId") Long studentId,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable limit);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.RosterStudentRow(s.id, s.fullName, s.email) " +
+            "FROM Course c JOIN c.students s " +
+            "WHERE c.id = :courseId AND s.id > :afterId " +
+            "ORDER BY s.id")
+    List<RosterStudentRow> findRosterRowsAfter(@Param("courseId") Long courseId,
+                                               @Param("afterId") Long afterId,
+                                               Pageable limit);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.EnrolledStudentRow(c.id, s.fullName, s.email) " +
+            "FROM Course c JOIN c.students s " +
+            "WHERE c.id IN :courseIds")
+    List<EnrolledStudentRow> findEnrolledStudentRows(@Param("courseIds") Collection<Long> courseIds);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseDetailRow(" +
+            "c.id, c.title, c.description, c.inviteCode, t.id, t.fullName) " +
+            "FROM Course c JOIN c.teacher t WHERE c.id = :courseId")
+    Optional<CourseDetailRow> findDetailRow(@Param("courseId") Long courseId);
+
+    // --- Content versions for conditional GETs ---
+
+    @Query("SELECT c.contentVersion FROM Course c WHERE c.id = :courseId")
+    Optional<Long> findContentVersion(@Param("courseId") Long courseId);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.VersionRow(c.id, c.contentVersion) " +
+            "FROM Course c WHERE c.teacher.id = :teacherId ORDER BY c.id")
+    List<VersionRow> findVersionRowsByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.VersionRow(c.id, c.contentVersion) " +
+            "FROM Course c JOIN c.students s WHERE s.id = :studentId ORDER BY c.id")
+    List<VersionRow> findVersionRowsByStudentId(@Param("studentId") Long studentId);
+
+    // Native writes name what they touch, or Hibernate empties every second-level cache region.
+    // content_version is only ever read by queries, so the bumps name no cached table.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "content_version"))
+    @Query(value = "UPDATE courses SET content_version = content_version + 1 WHERE id = :courseId", nativeQuery = true)
+    int bumpContentVersion(@Param("courseId") Long courseId);
+
+    // Names show up in the courses a user teaches or is enrolled in
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "content_version"))
+    @Query(value = "UPDATE courses SET content_version = content_version + 1 WHERE teacher_id = :userId " +
+            "OR id IN (SELECT course_id FROM course_students WHERE student_id = :userId)", nativeQuery = true)
+    int bumpContentVersionsOfUser(@Param("userId") Long userId);
+
+    // --- Aggregates for the teacher profile statistics ---
+
+    long countByTeacherId(Long teacherId);
+
+    @Query("SELECT COUNT(DISTINCT s.id) FROM Course c JOIN c.students s WHERE c.teacher.id = :teacherId")
+    long countDistinctStudentsByTeacherId(@Param("teacherId") Long teacherId);
+
+    // How many of this teacher's courses the student is enrolled in
+    @Query("SELECT COUNT(c) FROM Course c JOIN c.students s WHERE c.teacher.id = :teacherId AND s.id = :studentId")
+    long countEnrollmentsWithTeacher(@Param("teacherId") Long teacherId, @Param("studentId") Long studentId);
+
+    // --- Enrollment as plain course_students rows, the students collection is never loaded ---
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseOwnerRow(c.id, c.teacher.id) " +
+            "FROM Course c WHERE c.inviteCode = :inviteCode")
+    Optional<CourseOwnerRow> findOwnerRowByInviteCode(@Param("inviteCode") String inviteCode);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.CourseOwnerRow(c.id, c.teacher.id) " +
+            "FROM Course c WHERE c.id = :courseId")
+    Optional<CourseOwnerRow> findOwnerRowById(@Param("courseId") Long courseId);
+
+    // Returns 0 when the student is already enrolled (the pair is unique), so retries are harmless
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "course_students"))
+    @Query(value = "INSERT INTO course_students (course_id, student_id) VALUES (:courseId, :studentId) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertEnrollment(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "course_students"))
+    @Query(value = "DELETE FROM course_students WHERE course_id = :courseId AND student_id = :studentId",
+            nativeQuery = true)
+    int deleteEnrollment(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
 }
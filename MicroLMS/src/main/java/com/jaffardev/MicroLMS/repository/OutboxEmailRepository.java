@@ -0,0 +1,31 @@
+package com.jaffardev.MicroLMS.repository;
+
+import com.jaffardev.MicroLMS.model.OutboxEmail;
+import com.jaffardev.MicroLMS.model.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    // Rows locked by another dispatcher are skipped rather than waited on
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEmail> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(OutboxStatus status);
+
+    // Same email to the same recipient that is still waiting, or went out since the given time
+    @Query("SELECT COUNT(e) > 0 FROM OutboxEmail e WHERE e.recipient = :recipient AND e.subject = :subject " +
+            "AND (e.status = com.jaffardev.MicroLMS.model.OutboxStatus.PENDING OR e.sentAt >= :since)")
+    boolean existsPendingOrSentSince(@Param("recipient") String recipient, @Param("subject") String subject,
+                                     @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEmail e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteByStatusAndSentAtBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
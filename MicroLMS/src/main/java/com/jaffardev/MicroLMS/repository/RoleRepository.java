@@ -1,9 +1,16 @@
 package com.jaffardev.MicroLMS.repository;
 
 import com.jaffardev.MicroLMS.model.Role;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    // Every registration looks its roles up by name, answered from the query cache once warm
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
 }
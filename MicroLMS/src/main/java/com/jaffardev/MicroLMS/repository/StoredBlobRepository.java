@@ -0,0 +1,41 @@
+package com.jaffardev.MicroLMS.repository;
+
+import com.jaffardev.MicroLMS.model.StoredBlob;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Creates the blob with one reference or adds a reference, atomically
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "stored_blobs"))
+    @Query(value = "INSERT INTO stored_blobs (sha256, size, ref_count, created_at) " +
+            "VALUES (:sha256, :size, 1, now()) " +
+            "ON CONFLICT (sha256) DO UPDATE SET ref_count = stored_blobs.ref_count + 1", nativeQuery = true)
+    int addReference(@Param("sha256") String sha256, @Param("size") long size);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "stored_blobs"))
+    @Query(value = "UPDATE stored_blobs SET ref_count = ref_count - 1 WHERE sha256 = :sha256", nativeQuery = true)
+    int removeReference(@Param("sha256") String sha256);
+
+    // Locks the blob's row until the transaction ends, inserting an unreferenced one if there is none,
+    // so an addReference of the same content waits for it (or it for that); returns the references left
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "stored_blobs"))
+    @Query(value = "INSERT INTO stored_blobs (sha256, size, ref_count, created_at) " +
+            "VALUES (:sha256, 0, 0, now()) " +
+            "ON CONFLICT (sha256) DO UPDATE SET ref_count = stored_blobs.ref_count " +
+            "RETURNING ref_count", nativeQuery = true)
+    long lockReferences(@Param("sha256") String sha256);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "stored_blobs"))
+    @Query(value = "DELETE FROM stored_blobs WHERE sha256 = :sha256 AND ref_count <= 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
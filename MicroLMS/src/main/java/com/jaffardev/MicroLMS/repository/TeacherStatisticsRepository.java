@@ -0,0 +1,32 @@
+package com.jaffardev.MicroLMS.repository;
+
+import com.jaffardev.MicroLMS.model.TeacherStatistics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface TeacherStatisticsRepository extends JpaRepository<TeacherStatistics, Long> {
+
+    // Held while a change is checked against the real tables, so two such changes can't both see the same state
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TeacherStatistics t WHERE t.teacherId = :teacherId")
+    Optional<TeacherStatistics> findForUpdate(@Param("teacherId") Long teacherId);
+
+    // In-place increments so concurrent enrolls don't overwrite each other
+    @Modifying
+    @Query("UPDATE TeacherStatistics t SET t.totalCourses = t.totalCourses + :delta WHERE t.teacherId = :teacherId")
+    int addCourses(@Param("teacherId") Long teacherId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE TeacherStatistics t SET t.totalStudents = t.totalStudents + :delta WHERE t.teacherId = :teacherId")
+    int addStudents(@Param("teacherId") Long teacherId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE TeacherStatistics t SET t.totalAssignments = t.totalAssignments + :delta WHERE t.teacherId = :teacherId")
+    int addAssignments(@Param("teacherId") Long teacherId, @Param("delta") long delta);
+}
@@ -1,9 +1,14 @@
 package com.jaffardev.MicroLMS.repository;
 
+import com.jaffardev.MicroLMS.dto.UserIdRow;
 import com.jaffardev.MicroLMS.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +21,25 @@ public interface UserRepository extends JpaRepository<User, String> {
     User findByVerificationCode(String code);
 
     User findByResetCode(String resetCode);
+
+    // Scalar lookup for the auth filter, skips the user row hydration and the EAGER roles join
+    @Query("SELECT u.enabled FROM User u WHERE u.email = :email")
+    Optional<Boolean> findEnabledByEmail(@Param("email") String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // Id of the user only if they hold the role, one indexed lookup instead of loading user + roles
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE u.email = :email AND r.name = :role")
+    Optional<Long> findIdByEmailAndRole(@Param("email") String email, @Param("role") String role);
+
+    // --- Bulk lookups for the roster import ---
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT new com.jaffardev.MicroLMS.dto.UserIdRow(u.id, u.email) " +
+            "FROM User u JOIN u.roles r WHERE u.email IN :emails AND r.name = :role")
+    List<UserIdRow> findIdRowsByEmailInAndRole(@Param("emails") Collection<String> emails,
+                                               @Param("role") String role);
 }
@@ -6,8 +6,13 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +20,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -23,6 +29,11 @@ public class JwtFilter extends OncePerRequestFilter {
     private final JwtConfig jwtConfig;
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint authenticationEntryPoint;
+    private final UserStatusCache userStatusCache;
+
+    // When true the Authentication is built from the signed token claims, no user lookup per request
+    @Value("${app.jwt.claims-auth:true}")
+    private boolean claimsAuth;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -32,29 +43,30 @@ public class JwtFilter extends OncePerRequestFilter {
         try {
             final String authHeader = request.getHeader("Authorization");
 
-            String username = null;
-            String token = null;
+            VerifiedClaims claims = null;
 
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                token = authHeader.substring(7);
-                username = jwtConfig.getUsernameFromToken(token);
+                // Single parse + signature check for the whole request (or a cache hit)
+                claims = jwtConfig.verify(authHeader.substring(7));
             }
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                request.setAttribute(VerifiedClaims.REQUEST_ATTRIBUTE, claims);
+
+                UserDetails userDetails = claimsAuth
+                        ? userDetailsFromClaims(claims)
+                        : userDetailsService.loadUserByUsername(claims.getEmail());
 
-                if (jwtConfig.validateToken(token)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                userDetails,
+                                null,
+                                userDetails.getAuthorities()
+                        );
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
 
             filterChain.doFilter(request, response);
@@ -64,6 +76,23 @@ public class JwtFilter extends OncePerRequestFilter {
         } catch (io.jsonwebtoken.JwtException ex) {
             request.setAttribute("jwtError", "Invalid token");
             authenticationEntryPoint.commence(request, response, new UsernameNotFoundException("Invalid token"));
+        } catch (DisabledException ex) {
+            request.setAttribute("jwtError", "Account disabled");
+            authenticationEntryPoint.commence(request, response, ex);
         }
     }
+
+    private UserDetails userDetailsFromClaims(VerifiedClaims claims) {
+        // Token may outlive the account, so check the (cached) status before trusting the claims
+        if (!userStatusCache.isActive(claims.getEmail())) {
+            throw new DisabledException("Account disabled or removed");
+        }
+
+        List<GrantedAuthority> authorities = claims.getRoles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+
+        // Same shape as CustomUserDetailsService produces, minus the password we never need here
+        return new User(claims.getEmail(), "", authorities);
+    }
 }
@@ -0,0 +1,43 @@
+package com.jaffardev.MicroLMS.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jaffardev.MicroLMS.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import static com.jaffardev.MicroLMS.config.ReadWriteRoutingDataSource.onPrimary;
+
+/**
+ * Short-lived cache of "is this account still active" used by claims based authentication.
+ * A deleted or disabled user keeps a valid token until it expires, so we re-check the
+ * account at most once per ttl instead of loading the whole user on every request.
+ */
+@Component
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Boolean> activeUsers;
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${app.jwt.status-cache.ttl-seconds:60}") long ttlSeconds,
+                           @Value("${app.jwt.status-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.activeUsers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public boolean isActive(String email) {
+        // Unknown (deleted) users are cached as inactive too, so a stale token can't hammer the db
+        // and read from the primary, so a just verified account isn't cached as disabled off a lagging replica
+        return activeUsers.get(email, key -> onPrimary(() -> userRepository.findEnabledByEmail(key).orElse(false)));
+    }
+
+    public void evict(String email) {
+        activeUsers.invalidate(email);
+    }
+}
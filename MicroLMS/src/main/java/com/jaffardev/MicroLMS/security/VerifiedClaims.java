@@ -0,0 +1,25 @@
+package com.jaffardev.MicroLMS.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The parts of a JWT we actually use, captured once after signature verification.
+ * JwtFilter puts it on the request under {@link #REQUEST_ATTRIBUTE}.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedClaims {
+    public static final String REQUEST_ATTRIBUTE = "verifiedClaims";
+
+    private final String email;
+    private final List<String> roles;
+    private final Instant expiresAt;
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+}
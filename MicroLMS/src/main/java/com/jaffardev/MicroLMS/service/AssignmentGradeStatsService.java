@@ -0,0 +1,239 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.dto.AssignmentGradeStatsResponse;
+import com.jaffardev.MicroLMS.dto.GradeStatsRebuildResponse;
+import com.jaffardev.MicroLMS.dto.HistogramBucket;
+import com.jaffardev.MicroLMS.dto.MarkCountRow;
+import com.jaffardev.MicroLMS.model.AssignmentGradeStats;
+import com.jaffardev.MicroLMS.model.SubmissionStatus;
+import com.jaffardev.MicroLMS.repository.AssignmentGradeStatsRepository;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.AssignmentSubmissionRepository;
+import com.jaffardev.MicroLMS.repository.CourseRepository;
+import com.jaffardev.MicroLMS.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Per-assignment grade statistics (average, median, min/max, submission rate, histogram).
+ * The submit, unsubmit and grading paths apply their change to an assignment_grade_stats row, so
+ * reading the statistics is a primary key lookup plus the enrolment count. rebuild recounts from
+ * assignment_submission and reports whether the maintained numbers had drifted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AssignmentGradeStatsService {
+
+    private final AssignmentGradeStatsRepository statsRepository;
+    private final AssignmentSubmissionRepository submissionRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final CourseAccessService courseAccessService;
+    private final TransactionTemplate transactionTemplate;
+
+    // --- Hooks, called inside the transaction that made the change ---
+
+    @Transactional
+    public void onAssignmentCreated(Long assignmentId, Long courseId, Integer maxMarks) {
+        int max = maxMarks == null ? 0 : maxMarks;
+        statsRepository.save(new AssignmentGradeStats(assignmentId, courseId, max, 0, 0, 0, GradeHistogram.empty(max)));
+    }
+
+    @Transactional
+    public void onAssignmentDeleted(Long assignmentId) {
+        statsRepository.deleteByAssignment(assignmentId);
+    }
+
+    @Transactional
+    public void onCourseDeleted(Long courseId) {
+        statsRepository.deleteByCourse(courseId);
+    }
+
+    /** The histogram layout depends on maxMarks, so a change of it means a recount. */
+    @Transactional
+    public void onMaxMarksChanged(Long assignmentId) {
+        rebuild(assignmentId);
+    }
+
+    @Transactional
+    public void onSubmitted(Long assignmentId) {
+        apply(assignmentId, stats -> stats.setSubmittedCount(stats.getSubmittedCount() + 1));
+    }
+
+    @Transactional
+    public void onUnsubmitted(Long assignmentId) {
+        apply(assignmentId, stats -> stats.setSubmittedCount(stats.getSubmittedCount() - 1));
+    }
+
+    @Transactional
+    public void onGraded(Long assignmentId, MarkChange change) {
+        onGraded(assignmentId, List.of(change));
+    }
+
+    /** Applies many changes under a single row lock (bulk grading). */
+    @Transactional
+    public void onGraded(Long assignmentId, List<MarkChange> changes) {
+        apply(assignmentId, stats -> {
+            int[] histogram = stats.getHistogram().clone();
+            for (MarkChange change : changes) {
+                Integer oldMarks = change.oldMarks();
+                Integer newMarks = change.newMarks();
+                if (oldMarks != null) {
+                    stats.setGradedCount(stats.getGradedCount() - 1);
+                    stats.setSumMarks(stats.getSumMarks() - oldMarks);
+                    histogram[GradeHistogram.bucketOf(oldMarks, stats.getMaxMarks())]--;
+                }
+                if (newMarks != null) {
+                    stats.setGradedCount(stats.getGradedCount() + 1);
+                    stats.setSumMarks(stats.getSumMarks() + newMarks);
+                    histogram[GradeHistogram.bucketOf(newMarks, stats.getMaxMarks())]++;
+                }
+            }
+            stats.setHistogram(histogram);
+        });
+    }
+
+    // --- Reads ---
+
+    @Transactional(readOnly = true)
+    public AssignmentGradeStatsResponse getStats(Long assignmentId, String teacherEmail) {
+        checkOwner(assignmentId, teacherEmail);
+        AssignmentGradeStats stats = statsRepository.findById(assignmentId)
+                .orElseGet(() -> compute(assignmentId)); // assignments from before the stats existed
+        long enrolled = courseRepository.countStudents(stats.getCourseId());
+        return toResponse(stats, enrolled);
+    }
+
+    // --- Rebuild ---
+
+    @Transactional
+    public boolean rebuild(Long assignmentId, String teacherEmail) {
+        checkOwner(assignmentId, teacherEmail);
+        return rebuild(assignmentId);
+    }
+
+    /** Recounts one assignment; returns false if the maintained row had drifted (or was missing). */
+    @Transactional
+    public boolean rebuild(Long assignmentId) {
+        // lock first so no grading change slips in between the recount and the comparison
+        AssignmentGradeStats current = statsRepository.findForUpdate(assignmentId).orElse(null);
+        AssignmentGradeStats fresh = compute(assignmentId);
+        boolean consistent = current != null && sameNumbers(current, fresh);
+        if (current == null) {
+            statsRepository.save(fresh);
+        } else if (!consistent) {
+            current.setCourseId(fresh.getCourseId());
+            current.setMaxMarks(fresh.getMaxMarks());
+            current.setSubmittedCount(fresh.getSubmittedCount());
+            current.setGradedCount(fresh.getGradedCount());
+            current.setSumMarks(fresh.getSumMarks());
+            current.setHistogram(fresh.getHistogram());
+        }
+        return consistent;
+    }
+
+    /** Recounts every assignment, one transaction each, and lists the ones that had drifted. */
+    public GradeStatsRebuildResponse rebuildAll(String adminEmail) {
+        userRepository.findIdByEmailAndRole(adminEmail, "ADMIN")
+                .orElseThrow(() -> new RuntimeException("Only admins can rebuild all grade statistics"));
+        return rebuildAll();
+    }
+
+    public GradeStatsRebuildResponse rebuildAll() {
+        List<Long> mismatched = new ArrayList<>();
+        List<Long> ids = assignmentRepository.findAllIds();
+        for (Long assignmentId : ids) {
+            if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> rebuild(assignmentId)))) {
+                mismatched.add(assignmentId);
+            }
+        }
+        if (!mismatched.isEmpty()) {
+            log.warn("Grade statistics rebuilt, " + mismatched.size() + " assignments had drifted: " + mismatched);
+        }
+        return new GradeStatsRebuildResponse(ids.size(), mismatched);
+    }
+
+    private void checkOwner(Long assignmentId, String teacherEmail) {
+        courseAccessService.requireTeacher(courseAccessService.courseIdOfAssignment(assignmentId), teacherEmail);
+    }
+
+    private void apply(Long assignmentId, Consumer<AssignmentGradeStats> change) {
+        AssignmentGradeStats stats = statsRepository.findForUpdate(assignmentId).orElse(null);
+        if (stats == null) {
+            // first change since the stats were introduced: the recount already includes it
+            statsRepository.save(compute(assignmentId));
+            return;
+        }
+        change.accept(stats);
+    }
+
+    private AssignmentGradeStats compute(Long assignmentId) {
+        AssignmentGradeStats stats = new AssignmentGradeStats();
+        stats.setAssignmentId(assignmentId);
+        assignmentRepository.findGradingRow(assignmentId).ifPresent(row -> {
+            stats.setCourseId(row.getCourseId());
+            stats.setMaxMarks(row.getMaxMarks() == null ? 0 : row.getMaxMarks());
+        });
+        stats.setSubmittedCount(submissionRepository.countByAssignmentIdAndStatus(assignmentId, SubmissionStatus.SUBMITTED));
+
+        int[] histogram = GradeHistogram.empty(stats.getMaxMarks());
+        for (MarkCountRow row : submissionRepository.countMarks(assignmentId)) {
+            stats.setGradedCount(stats.getGradedCount() + row.getCount());
+            stats.setSumMarks(stats.getSumMarks() + (long) row.getMarks() * row.getCount());
+            histogram[GradeHistogram.bucketOf(row.getMarks(), stats.getMaxMarks())] += row.getCount().intValue();
+        }
+        stats.setHistogram(histogram);
+        return stats;
+    }
+
+    private static boolean sameNumbers(AssignmentGradeStats a, AssignmentGradeStats b) {
+        return Objects.equals(a.getCourseId(), b.getCourseId())
+                && a.getMaxMarks() == b.getMaxMarks()
+                && a.getSubmittedCount() == b.getSubmittedCount()
+                && a.getGradedCount() == b.getGradedCount()
+                && a.getSumMarks() == b.getSumMarks()
+                && Arrays.equals(a.getHistogram(), b.getHistogram());
+    }
+
+    private static AssignmentGradeStatsResponse toResponse(AssignmentGradeStats stats, long enrolled) {
+        int[] histogram = stats.getHistogram();
+        int max = stats.getMaxMarks();
+        Integer minMark = null;
+        Integer maxMark = null;
+        List<HistogramBucket> buckets = new ArrayList<>(histogram.length);
+        for (int b = 0; b < histogram.length; b++) {
+            buckets.add(new HistogramBucket(GradeHistogram.lowerBound(b, max), GradeHistogram.upperBound(b, max), histogram[b]));
+            if (histogram[b] > 0) {
+                if (minMark == null) {
+                    minMark = GradeHistogram.lowerBound(b, max);
+                }
+                maxMark = GradeHistogram.upperBound(b, max);
+            }
+        }
+        long graded = stats.getGradedCount();
+        return AssignmentGradeStatsResponse.builder()
+                .assignmentId(stats.getAssignmentId())
+                .maxMarks(max)
+                .enrolled(enrolled)
+                .submitted(stats.getSubmittedCount())
+                .graded(graded)
+                .submissionRate(enrolled == 0 ? null : (double) stats.getSubmittedCount() / enrolled)
+                .average(graded == 0 ? null : (double) stats.getSumMarks() / graded)
+                .median(GradeHistogram.quantile(histogram, graded, 0.5, max))
+                .min(minMark)
+                .max(maxMark)
+                .histogram(buckets)
+                .build();
+    }
+}
@@ -1,49 +1,66 @@
 package com.jaffardev.MicroLMS.service;
 
+import com.jaffardev.MicroLMS.dto.AssignmentDetailRow;
+import com.jaffardev.MicroLMS.dto.AssignmentInCourseResponse;
+import com.jaffardev.MicroLMS.dto.AssignmentMaterialRow;
 import com.jaffardev.MicroLMS.dto.CreateAssignmentRequest;
+import com.jaffardev.MicroLMS.dto.CourseSubmissionRow;
 import com.jaffardev.MicroLMS.dto.CreateAssignmentResponse;
+import com.jaffardev.MicroLMS.dto.KeysetPage;
+import com.jaffardev.MicroLMS.dto.RemainingAssignmentRow;
+import com.jaffardev.MicroLMS.dto.RemainingAssignmentsPage;
 import com.jaffardev.MicroLMS.dto.UpdateAssignmentRequest;
 import com.jaffardev.MicroLMS.model.Assignment;
 import com.jaffardev.MicroLMS.model.AssignmentSubmission;
 import com.jaffardev.MicroLMS.model.Course;
-import com.jaffardev.MicroLMS.model.User;
 import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.AssignmentSubmissionRepository;
 import com.jaffardev.MicroLMS.repository.CourseRepository;
 import com.jaffardev.MicroLMS.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.jaffardev.MicroLMS.storage.BlobStore;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static com.jaffardev.MicroLMS.utils.CommonUtils.clampPageSize;
 import static com.jaffardev.MicroLMS.utils.CommonUtils.isValidFile;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("lms.service")
 public class AssignmentService {
+    private static final int MAX_DUE_SOON_DAYS = 90;
+
     private final AssignmentRepository assignmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final TeacherStatisticsService teacherStatisticsService;
+    private final BlobStore blobStore;
+    private final AssignmentGradeStatsService gradeStatsService;
+    private final CourseAccessService courseAccessService;
+    private final CourseDetailCache courseDetailCache;
+    private final ContentVersionService contentVersionService;
+    private final AssignmentSubmissionRepository submissionRepository;
 
     public CreateAssignmentResponse createAssignment(CreateAssignmentRequest request, String teacherEmail) {
+        // Ensure teacher owns the course
+        courseAccessService.requireTeacher(request.getCourseId(), teacherEmail);
+
         Course course = courseRepository.findById(request.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Course not found"));
 
-        // Ensure teacher owns the course
-        if (!course.getTeacher().getEmail().equals(teacherEmail)) {
-            throw new RuntimeException("You are not the teacher of this course");
-        }
-
         Assignment assignment = new Assignment();
         assignment.setDescription(request.getDescription());
         assignment.setTitle(request.getTitle());
@@ -59,15 +76,17 @@ public class AssignmentService {
         }
 
         Assignment saved = assignmentRepository.save(assignment);
-
-        // Notify all students
-        course.getStudents().forEach(student -> {
-            emailService.sendSimpleEmailAsync(
-                    student.getEmail(),
-                    "New Assignment in " + course.getTitle(),
-                    "A new assignment has been posted: " + request.getDescription()
-            );
-        });
+        teacherStatisticsService.onAssignmentCreated(course.getTeacher().getId());
+        gradeStatsService.onAssignmentCreated(saved.getId(), course.getId(), saved.getMaxMarks());
+        courseDetailCache.evictCourse(course.getId());
+        contentVersionService.courseChanged(course.getId());
+
+        // Notify all students: queued in this transaction, one batch regardless of course size
+        emailService.queueEmails(
+                courseRepository.findStudentEmails(course.getId()),
+                "New Assignment in " + course.getTitle(),
+                "A new assignment has been posted: " + request.getDescription()
+        );
 
         return new CreateAssignmentResponse(
                 assignment.getTitle(),
@@ -82,21 +101,25 @@ public class AssignmentService {
     public CreateAssignmentResponse updateAssignment(Long id,
                                                      UpdateAssignmentRequest request,
                                                      String teacherEmail) {
+        // verify ownership
+        courseAccessService.requireTeacher(courseAccessService.courseIdOfAssignment(id), teacherEmail);
+
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
 
-        // verify ownership
-        if (!assignment.getCourse().getTeacher().getEmail().equals(teacherEmail)) {
-            throw new RuntimeException("Not authorized to update this assignment");
-        }
-
         // update only metadata
+        boolean maxMarksChanged = !Objects.equals(assignment.getMaxMarks(), request.getMaxMarks());
         assignment.setTitle(request.getTitle());
         assignment.setDescription(request.getDescription());
         assignment.setDueDate(request.getDueDate());
         assignment.setMaxMarks(request.getMaxMarks());
 
         assignmentRepository.save(assignment);
+        courseDetailCache.evictAssignment(id, assignment.getCourse().getId());
+        contentVersionService.assignmentChanged(id, assignment.getCourse().getId());
+        if (maxMarksChanged) {
+            gradeStatsService.onMaxMarksChanged(id);
+        }
 
         return new CreateAssignmentResponse(
                 assignment.getTitle(),
@@ -111,53 +134,30 @@ public class AssignmentService {
 
     @Transactional
     public void deleteAssignment(Long id, String teacherEmail) {
+        // verify teacher owns the course
+        Long teacherId = courseAccessService.requireTeacher(courseAccessService.courseIdOfAssignment(id), teacherEmail)
+                .getUserId();
+
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
 
-        // verify teacher owns the course
-        if (!assignment.getCourse().getTeacher().getEmail().equals(teacherEmail)) {
-            throw new RuntimeException("You are not authorized to delete this assignment");
-        }
-
-        // delete associated files if any
-        if (assignment.getMaterials() != null) {
-            for (String path : assignment.getMaterials()) {
-                try {
-                    Path filePath = Paths.get(path.replaceFirst("/", "")); // remove leading slash
-                    Files.deleteIfExists(filePath);
-                } catch (IOException ex) {
-                    // log but don’t block deletion
-                    System.err.println("Could not delete file: " + path);
-                }
-            }
+        // release associated files; shared content stays until its last reference is gone
+        blobStore.releaseAll(assignment.getMaterials());
+        for (AssignmentSubmission submission : assignment.getSubmissions()) {
+            blobStore.releaseAll(submission.getFilePaths());
         }
 
         assignmentRepository.delete(assignment);
+        teacherStatisticsService.onAssignmentDeleted(teacherId);
+        gradeStatsService.onAssignmentDeleted(id);
+        courseAccessService.onAssignmentDeleted(id);
+        courseDetailCache.evictAssignment(id, assignment.getCourse().getId());
+        contentVersionService.courseChanged(assignment.getCourse().getId());
     }
 
+    @Transactional(readOnly = true)
     public List<CreateAssignmentResponse> getAssignmentsByCourse(Long courseId, String email) {
-        Course course = courseRepository.findById(courseId)
-                    .orElseThrow(() -> new RuntimeException("Course not found"));
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        boolean isTeacher = user.getRoles().stream()
-                .anyMatch(r -> r.getName().equalsIgnoreCase("TEACHER"));
-        boolean isStudent = user.getRoles().stream()
-                .anyMatch(r -> r.getName().equalsIgnoreCase("STUDENT"));
-
-        if (isTeacher) {
-            if (!course.getTeacher().getId().equals(user.getId())) {
-                throw new RuntimeException("You are not authorized to view assignments for this course");
-            }
-        } else if (isStudent) {
-            if (!course.getStudents().contains(user)) {
-                throw new RuntimeException("You are not enrolled in this course");
-            }
-        } else {
-            throw new RuntimeException("Invalid role");
-        }
+        courseAccessService.requireMember(courseId, email);
 
         List<Assignment> assignments = assignmentRepository.findByCourseId(courseId);
         return assignments.stream()
@@ -165,62 +165,135 @@ public class AssignmentService {
                 .toList();
     }
 
-    public List<CreateAssignmentResponse> getSubmissionRemainAssignmentsByCourse(Long courseId, String email) {
-        Course course = courseRepository.findById(courseId)
-                    .orElseThrow(() -> new RuntimeException("Course not found"));
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        boolean isStudent = user.getRoles().stream()
-                .anyMatch(r -> r.getName().equalsIgnoreCase("STUDENT"));
+    /**
+     * The course's assignments in pages of at most size, ordered by id. Materials come from one batch
+     * query per page; a student also gets their own submission state, from one more.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<AssignmentInCourseResponse> getAssignmentPage(Long courseId, String email, Long afterId, int size) {
+        CourseAccess access = courseAccessService.requireMember(courseId, email);
+        int pageSize = clampPageSize(size);
+        List<AssignmentDetailRow> rows = assignmentRepository.findDetailRowsAfter(
+                courseId, afterId == null ? 0 : afterId, PageRequest.of(0, pageSize + 1));
+        KeysetPage<AssignmentDetailRow> page = KeysetPage.of(rows, pageSize, AssignmentDetailRow::getId, row -> row);
+        if (page.getItems().isEmpty()) {
+            return new KeysetPage<>(new ArrayList<>(), null);
+        }
 
-        if (isStudent) {
-            if (!course.getStudents().contains(user)) {
-                throw new RuntimeException("You are not enrolled in this course");
+        List<Long> ids = page.getItems().stream().map(AssignmentDetailRow::getId).toList();
+        Map<Long, List<String>> materials = materialsOf(ids);
+        Map<Long, CourseSubmissionRow> mine = new HashMap<>();
+        if (access.isStudent()) {
+            for (CourseSubmissionRow row : submissionRepository.findSubmissionRowsOfStudent(ids, access.getUserId())) {
+                mine.put(row.getAssignmentId(), row);
             }
-        } else {
-            throw new RuntimeException("Invalid role");
         }
 
-        List<Assignment> assignments = assignmentRepository.findByCourseId(courseId);
-
-        List<Assignment> submissionRemainAssignments = assignments.stream()
-                .filter(assignment -> assignment.getSubmissions().stream()
-                        .noneMatch(submission -> submission.getStudent().getEmail().equals(email)))
-                .toList();
+        List<AssignmentInCourseResponse> items = new ArrayList<>();
+        for (AssignmentDetailRow row : page.getItems()) {
+            CourseSubmissionRow submission = mine.get(row.getId());
+            items.add(AssignmentInCourseResponse.builder()
+                    .id(row.getId())
+                    .courseId(courseId)
+                    .title(row.getTitle())
+                    .description(row.getDescription())
+                    .dueDate(row.getDueDate())
+                    .maxMarks(row.getMaxMarks())
+                    .materials(materials.getOrDefault(row.getId(), new ArrayList<>()))
+                    .isSubmittedByStudent(submission != null)
+                    .submissionDate(submission != null ? submission.getSubmittedAt() : null)
+                    .aquiredMarks(submission != null ? submission.getAcquiredMarks() : null)
+                    .build());
+        }
+        return new KeysetPage<>(items, page.getNextAfterId());
+    }
 
-        return submissionRemainAssignments.stream()
-                .map(this::mapToResponse)
-                .toList();
+    private Map<Long, List<String>> materialsOf(List<Long> assignmentIds) {
+        Map<Long, List<String>> materials = new HashMap<>();
+        for (AssignmentMaterialRow material : assignmentRepository.findMaterialRows(assignmentIds)) {
+            materials.computeIfAbsent(material.getAssignmentId(), k -> new ArrayList<>()).add(material.getFilePath());
+        }
+        return materials;
     }
 
-    public CreateAssignmentResponse getAssignmentById(Long id, String email) {
-        Assignment assignment = assignmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Assignment not found"));
+    /**
+     * Assignments of the course the student has not submitted yet, soonest due first. A single
+     * NOT EXISTS query keyed on assignment and student id, paged by (dueDate, id) so later pages
+     * cost the same as the first.
+     */
+    @Transactional(readOnly = true)
+    public RemainingAssignmentsPage getSubmissionRemainAssignmentsByCourse(Long courseId, String email,
+                                                                           LocalDateTime afterDueDate,
+                                                                           Long afterId, int size) {
+        if ((afterDueDate == null) != (afterId == null)) {
+            throw new RuntimeException("afterDueDate and afterId must be given together");
+        }
+        Long studentId = courseAccessService.requireStudent(courseId, email).getUserId();
+
+        // one extra row tells whether another page follows
+        int pageSize = clampPageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<RemainingAssignmentRow> rows = afterId == null
+                ? assignmentRepository.findRemaining(courseId, studentId, limit)
+                : assignmentRepository.findRemainingAfter(courseId, studentId, afterDueDate, afterId, limit);
+        return toPage(rows, pageSize);
+    }
 
-        Course course = assignment.getCourse();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /** Unsubmitted assignments across all of the student's courses due within the next {@code days} days. */
+    @Transactional(readOnly = true)
+    public RemainingAssignmentsPage getAssignmentsDueSoon(String email, int days, int size) {
+        if (days < 1 || days > MAX_DUE_SOON_DAYS) {
+            throw new RuntimeException("days must be between 1 and " + MAX_DUE_SOON_DAYS);
+        }
+        Long studentId = userRepository.findIdByEmailAndRole(email, "STUDENT")
+                .orElseThrow(() -> new RuntimeException("Invalid role"));
+
+        int pageSize = clampPageSize(size);
+        LocalDateTime now = LocalDateTime.now();
+        List<RemainingAssignmentRow> rows = assignmentRepository.findRemainingDueBetween(
+                studentId, now, now.plusDays(days), PageRequest.of(0, pageSize + 1));
+        RemainingAssignmentsPage page = toPage(rows, pageSize);
+        // the window is bounded, there is no cursor to continue from
+        page.setNextAfterDueDate(null);
+        page.setNextAfterId(null);
+        return page;
+    }
 
-        boolean isTeacher = user.getRoles().stream()
-                .anyMatch(r -> r.getName().equalsIgnoreCase("TEACHER"));
-        boolean isStudent = user.getRoles().stream()
-                .anyMatch(r -> r.getName().equalsIgnoreCase("STUDENT"));
+    private RemainingAssignmentsPage toPage(List<RemainingAssignmentRow> rows, int pageSize) {
+        boolean more = rows.size() > pageSize;
+        if (more) {
+            rows = rows.subList(0, pageSize);
+        }
 
-        if (isTeacher) {
-            if (!course.getTeacher().getId().equals(user.getId())) {
-                throw new RuntimeException("You are not authorized to view this assignment");
-            }
-        } else if (isStudent) {
-            if (!course.getStudents().contains(user)) {
-                throw new RuntimeException("You are not enrolled in this course");
-            }
-        } else {
-            throw new RuntimeException("Invalid role");
+        Map<Long, List<String>> materials = rows.isEmpty()
+                ? new HashMap<>()
+                : materialsOf(rows.stream().map(RemainingAssignmentRow::getId).toList());
+
+        RemainingAssignmentsPage page = new RemainingAssignmentsPage();
+        for (RemainingAssignmentRow row : rows) {
+            page.getAssignments().add(AssignmentInCourseResponse.builder()
+                    .id(row.getId())
+                    .courseId(row.getCourseId())
+                    .title(row.getTitle())
+                    .description(row.getDescription())
+                    .dueDate(row.getDueDate())
+                    .maxMarks(row.getMaxMarks())
+                    .materials(materials.getOrDefault(row.getId(), new ArrayList<>()))
+                    .isSubmittedByStudent(false)
+                    .build());
         }
+        if (more) {
+            RemainingAssignmentRow last = rows.get(rows.size() - 1);
+            page.setNextAfterDueDate(last.getDueDate());
+            page.setNextAfterId(last.getId());
+        }
+        return page;
+    }
 
-        return mapToResponse(assignment);
+    @Transactional(readOnly = true)
+    public CreateAssignmentResponse getAssignmentById(Long id, String email) {
+        courseAccessService.requireMember(courseAccessService.courseIdOfAssignment(id), email);
+        return courseDetailCache.getAssignment(id);
     }
 
     // helper to map entity → response DTO
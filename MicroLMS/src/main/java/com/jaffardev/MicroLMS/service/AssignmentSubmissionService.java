@@ -1,64 +1,94 @@
 package com.jaffardev.MicroLMS.service;
 
+import com.jaffardev.MicroLMS.dto.AssignmentGradingRow;
 import com.jaffardev.MicroLMS.dto.AssignmentUnSubmitResponse;
+import com.jaffardev.MicroLMS.dto.BulkGradeItem;
+import com.jaffardev.MicroLMS.dto.BulkGradeItemResult;
+import com.jaffardev.MicroLMS.dto.BulkGradeRequest;
+import com.jaffardev.MicroLMS.dto.BulkGradeResponse;
 import com.jaffardev.MicroLMS.dto.GradeSubmissionRequest;
 import com.jaffardev.MicroLMS.dto.AssignmentSubmissionResponse;
+import com.jaffardev.MicroLMS.dto.KeysetPage;
+import com.jaffardev.MicroLMS.dto.SubmissionFilePathRow;
+import com.jaffardev.MicroLMS.dto.SubmissionGradeRow;
+import com.jaffardev.MicroLMS.dto.SubmissionPageRow;
+import com.jaffardev.MicroLMS.metrics.BusinessMetrics;
 import com.jaffardev.MicroLMS.model.*;
 import com.jaffardev.MicroLMS.repository.AssignmentRepository;
 import com.jaffardev.MicroLMS.repository.AssignmentSubmissionRepository;
 import com.jaffardev.MicroLMS.repository.CourseRepository;
 import com.jaffardev.MicroLMS.repository.UserRepository;
-import com.jaffardev.MicroLMS.utils.CommonUtils;
-import jakarta.transaction.Transactional;
+import com.jaffardev.MicroLMS.storage.BlobStore;
+import com.jaffardev.MicroLMS.storage.IngestedFile;
+import com.jaffardev.MicroLMS.storage.IngestedUpload;
+import com.jaffardev.MicroLMS.storage.MultipartIngest;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static com.jaffardev.MicroLMS.utils.CommonUtils.clampPageSize;
+import static com.jaffardev.MicroLMS.utils.CommonUtils.resolveFields;
+
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed("lms.service")
 public class AssignmentSubmissionService {
+    private static final Set<String> SUBMISSION_FIELDS = Set.of("files");
+    // the row and its files in one statement, the files only go in when the row did
+    private static final String INSERT_SUBMISSION = "WITH created AS (" +
+            "INSERT INTO assignment_submission (id, assignment_id, student_id, submitted_at, status) " +
+            "VALUES (nextval('" + IdSequences.SUBMISSIONS + "'), ?, ?, ?, 'SUBMITTED') " +
+            "ON CONFLICT (assignment_id, student_id) DO NOTHING RETURNING id), " +
+            "files AS (INSERT INTO submission_files (submission_id, file_path) " +
+            "SELECT id, unnest(?::varchar[]) FROM created) " +
+            "SELECT id FROM created";
+
     private final AssignmentRepository assignmentRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final CourseRepository courseRepository;
     private final AssignmentSubmissionRepository submissionRepository;
+    private final MultipartIngest multipartIngest;
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AssignmentGradeStatsService gradeStatsService;
+    private final CourseAccessService courseAccessService;
+    private final ContentVersionService contentVersionService;
+    private final BusinessMetrics businessMetrics;
 
     public AssignmentSubmissionResponse submitAssignment(Long assignmentId, String studentEmail,
-                                                         MultipartFile[] files,
-                                                         List<String> retainedFiles) throws IOException {
+                                                         String contentType,
+                                                         InputStream body) throws IOException {
         Assignment assignment = assignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
 
-        User student = userRepository.findByEmail(studentEmail)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        if (student.getRoles().stream().noneMatch(role -> role.getName().equals("STUDENT"))) {
-            throw new RuntimeException("Only students can submit.");
-        }
+        // only an enrolled student gets here; the user row itself is never loaded
+        Long studentId = courseAccessService.requireStudent(assignment.getCourse().getId(), studentEmail).getUserId();
 
         if (assignment.getDueDate() != null && LocalDateTime.now().isAfter(assignment.getDueDate())) {
+            businessMetrics.count("submissions", "rejected_late");
             throw new RuntimeException("Cannot submit after due date");
         }
 
-        boolean enrolled = assignment.getCourse().getStudents().contains(student);
-        if (!enrolled) {
-            throw new RuntimeException("You are not enrolled in this course.");
-        }
-
         Optional<AssignmentSubmission> existingSubmissionOpt = submissionRepository
-                .findByAssignmentIdAndStudentId(assignmentId, student.getId());
+                .findByAssignmentIdAndStudentId(assignmentId, studentId);
         if (existingSubmissionOpt.isPresent()) {
             AssignmentSubmission existing = existingSubmissionOpt.get();
             // If they already turned it in and haven't clicked unsubmit, block them
@@ -71,48 +101,78 @@ public class AssignmentSubmissionService {
                 String.valueOf(assignment.getCourse().getId()),
                 "assignments",
                 String.valueOf(assignmentId),
-                student.getId().toString());
-        Files.createDirectories(uploadDir);
-
-        List<String> combinedFilePaths = new ArrayList<>();
-        if (files != null && files.length > 0) {
-            for (MultipartFile file : files) {
-                if (!CommonUtils.isValidFile(file)) {
-                    throw new RuntimeException("Invalid file type: " + file.getOriginalFilename());
-                }
+                studentId.toString());
 
-                String safeName = UUID.randomUUID() + "-" +
-                        StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+        // All checks passed, only now is the body read; identical content is stored once
+        IngestedUpload upload = multipartIngest.ingest(contentType, body);
+        List<String> retainedFiles = upload.getFieldValues("retainedFiles");
 
-                Path destination = uploadDir.resolve(safeName);
-                Files.copy(file.getInputStream(), destination, StandardCopyOption.REPLACE_EXISTING);
+        List<String> newFilePaths = new ArrayList<>();
+        try {
+            for (IngestedFile file : upload.getFiles("files")) {
+                newFilePaths.add(blobStore.store(file, uploadDir));
+            }
+        } catch (IOException | RuntimeException e) {
+            blobStore.releaseAll(newFilePaths);
+            upload.deleteFiles();
+            throw e;
+        }
 
-                combinedFilePaths.add("/uploads/" + assignment.getCourse().getId()
-                        + "/assignments/" + assignmentId
-                        + "/" + student.getId()
-                        + "/" + safeName);
+        List<String> droppedFilePaths = new ArrayList<>();
+        AssignmentSubmission submission;
+        try {
+            // The row, its status and the submitted count change together or not at all
+            submission = transactionTemplate.execute(status -> saveSubmission(assignmentId, studentId,
+                    assignment.getCourse().getId(), newFilePaths, retainedFiles, droppedFilePaths));
+        } catch (RuntimeException e) {
+            blobStore.releaseAll(newFilePaths);
+            throw e;
+        }
+        // The blob is only unlinked once no other material or submission references the same content
+        for (String oldPath : droppedFilePaths) {
+            try {
+                blobStore.release(oldPath);
+                log.info("Released removed draft file: " + oldPath);
+            } catch (Exception e) {
+                log.error("Failed to release dropped draft file: " + oldPath, e);
             }
         }
+        businessMetrics.count("submissions", existingSubmissionOpt.isPresent() ? "resubmitted" : "submitted");
 
+        return new AssignmentSubmissionResponse(
+                submission.getId(),
+                assignmentId,
+                studentEmail,
+                submission.getSubmittedAt(),
+                submission.getFilePaths(),
+                null
+        );
+    }
+
+    /**
+     * Turns the draft in, or creates the first submission, and counts it in the grade statistics.
+     * The draft row is locked and its status checked again, a concurrent submit or unsubmit may
+     * have changed it since the check made before the body was read.
+     */
+    private AssignmentSubmission saveSubmission(Long assignmentId, Long studentId, Long courseId,
+                                                List<String> newFilePaths, List<String> retainedFiles,
+                                                List<String> droppedFilePaths) {
+        List<String> combinedFilePaths = new ArrayList<>(newFilePaths);
+        Optional<AssignmentSubmission> draft = submissionRepository.findForUpdate(assignmentId, studentId);
         AssignmentSubmission submission;
-        if (existingSubmissionOpt.isPresent()) {
+        if (draft.isPresent()) {
             // We are updating the current DRAFT row
-            submission = existingSubmissionOpt.get();
-
-            List<String> incomingRetained = (retainedFiles != null) ? retainedFiles : new ArrayList<>();
+            submission = draft.get();
+            if (submission.getStatus() == SubmissionStatus.SUBMITTED) {
+                throw new RuntimeException("You have already submitted this assignment. Unsubmit first to resubmit.");
+            }
 
-            // STORAGE CLEANUP: Delete previous files from disk right before substituting new ones
+            // STORAGE CLEANUP: Drop the reference to previous files right before substituting new ones
             if (submission.getFilePaths() != null) {
                 for (String oldPath : submission.getFilePaths()) {
-                    if (!incomingRetained.contains(oldPath)) {
+                    if (!retainedFiles.contains(oldPath)) {
                         // This means the student clicked the 'X' button for this file!
-                        try {
-                            Path oldSystemPath = Paths.get(oldPath.substring(1));
-                            Files.deleteIfExists(oldSystemPath);
-                            log.info("Deleted removed draft file from disk: " + oldPath);
-                        } catch (Exception e) {
-                            log.error("Failed to clean up dropped draft file from disk: " + oldPath, e);
-                        }
+                        droppedFilePaths.add(oldPath);
                     } else {
                         // Student kept it, carry it forward into the submission
                         combinedFilePaths.add(oldPath);
@@ -122,30 +182,42 @@ public class AssignmentSubmissionService {
             submission.setFilePaths(combinedFilePaths);
             submission.setSubmittedAt(LocalDateTime.now());
             submission.setStatus(SubmissionStatus.SUBMITTED); // Re-lock it
+            submissionRepository.save(submission);
         } else {
             // Clean create: First time submission
             submission = new AssignmentSubmission();
-            submission.setAssignment(assignment);
-            submission.setStudent(student);
             submission.setSubmittedAt(LocalDateTime.now());
             submission.setFilePaths(combinedFilePaths);
             submission.setStatus(SubmissionStatus.SUBMITTED);
+            submission.setId(insertSubmission(assignmentId, studentId, submission));
         }
+        gradeStatsService.onSubmitted(assignmentId);
+        contentVersionService.submissionsChanged(List.of(submission.getId()), courseId);
+        return submission;
+    }
 
-        submissionRepository.save(submission);
-
-        return new AssignmentSubmissionResponse(
-                submission.getId(),
-                assignmentId,
-                studentEmail,
-                submission.getSubmittedAt(),
-                submission.getFilePaths(),
-                null
-        );
+    /**
+     * First submission as INSERT ... ON CONFLICT on the unique (assignment_id, student_id) key, so two
+     * concurrent first submissions (a second tab, a retried request) can't both create a row.
+     */
+    private Long insertSubmission(Long assignmentId, Long studentId, AssignmentSubmission submission) {
+        Long id = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SUBMISSION);
+            ps.setLong(1, assignmentId);
+            ps.setLong(2, studentId);
+            ps.setTimestamp(3, Timestamp.valueOf(submission.getSubmittedAt()));
+            ps.setArray(4, con.createArrayOf("varchar", submission.getFilePaths().toArray()));
+            return ps;
+        }, rs -> rs.next() ? rs.getLong(1) : null);
+        if (id == null) {
+            throw new RuntimeException("You have already submitted this assignment. Unsubmit first to resubmit.");
+        }
+        return id;
     }
 
+    @Transactional
     public AssignmentSubmissionResponse gradeSubmission(GradeSubmissionRequest gradeSubmissionRequest, String email) {
-        AssignmentSubmission submission = submissionRepository.findById(gradeSubmissionRequest.getSubmissionId())
+        AssignmentSubmission submission = submissionRepository.findByIdForUpdate(gradeSubmissionRequest.getSubmissionId())
                 .orElseThrow(() -> new RuntimeException("Submission not found"));
 
         if (submission.getAcquiredMarks() != null) {
@@ -156,14 +228,9 @@ public class AssignmentSubmissionService {
             throw new RuntimeException("Given marks exceeds max marks.");
         }
 
-        User teacher = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
         Assignment assignment = submission.getAssignment();
         Course course = assignment.getCourse();
-        if (!course.getTeacher().getId().equals(teacher.getId())) {
-            throw new RuntimeException("You are not authorized to grade submissions for this course.");
-        }
+        courseAccessService.requireTeacher(course.getId(), email);
         // ✅ Check if this submission belongs to the provided course
         if (!course.getId().equals(gradeSubmissionRequest.getCourseId())) {
             throw new RuntimeException("Submission does not belong to the specified course.");
@@ -171,9 +238,12 @@ public class AssignmentSubmissionService {
 
         submission.setAcquiredMarks(gradeSubmissionRequest.getMarks());
         submission = submissionRepository.save(submission);
+        gradeStatsService.onGraded(assignment.getId(), new MarkChange(null, submission.getAcquiredMarks()));
+        contentVersionService.submissionsChanged(List.of(submission.getId()), course.getId());
+        businessMetrics.count("gradings", "graded");
 
         String assignmentTitle = assignment.getCourse().getTitle();
-        emailService.sendSimpleEmailAsync(
+        emailService.queueEmail(
                 submission.getStudent().getEmail(),
                 "Assignment Graded: " + submission.getAssignment().getTitle(),
                 "Your assignment \"" + submission.getAssignment().getTitle() + "\" in course \"" + assignmentTitle +
@@ -192,21 +262,24 @@ public class AssignmentSubmissionService {
     }
 
 
-    public AssignmentSubmissionResponse updateGradeSubmission(Long submissionId, Integer newMarks) {
-        AssignmentSubmission submission = submissionRepository.findById(submissionId)
+    @Transactional
+    public AssignmentSubmissionResponse updateGradeSubmission(Long submissionId, Integer newMarks, String teacherEmail) {
+        AssignmentSubmission submission = submissionRepository.findByIdForUpdate(submissionId)
                 .orElseThrow(() -> new RuntimeException("Submission not found"));
 
         Assignment assignment = submission.getAssignment();
-        if (!assignmentRepository.existsById(assignment.getId())) {
-            throw new RuntimeException("Assignment not exist.");
-        }
+        courseAccessService.requireTeacher(assignment.getCourse().getId(), teacherEmail);
 
         if (newMarks > assignment.getMaxMarks()) {
             throw new RuntimeException("Given marks exceeds max marks.");
         }
 
+        Integer oldMarks = submission.getAcquiredMarks();
         submission.setAcquiredMarks(newMarks);
         submission = submissionRepository.save(submission);
+        gradeStatsService.onGraded(assignment.getId(), new MarkChange(oldMarks, newMarks));
+        contentVersionService.submissionsChanged(List.of(submission.getId()), assignment.getCourse().getId());
+        businessMetrics.count("gradings", oldMarks == null ? "graded" : "regraded");
 
         // Send email notification asynchronously
         User student = submission.getStudent();
@@ -214,7 +287,7 @@ public class AssignmentSubmissionService {
         String assignmentTitle = assignment.getTitle();
         Integer maxMarks = assignment.getMaxMarks();
 
-        emailService.sendSimpleEmailAsync(
+        emailService.queueEmail(
                 student.getEmail(),
                 "Updated Grade for Assignment: " + assignmentTitle,
                 "Your grade for assignment \"" + assignmentTitle + "\" in course \"" + courseTitle +
@@ -232,13 +305,81 @@ public class AssignmentSubmissionService {
         );
     }
 
+    /**
+     * Grades many submissions of one assignment at once: one ownership check, one read of the
+     * affected submissions, one JDBC batch of updates and one batch of queued notifications.
+     * Invalid items are reported individually and do not stop the rest.
+     */
+    @Transactional
+    public BulkGradeResponse gradeSubmissions(Long assignmentId, BulkGradeRequest request, String teacherEmail) {
+        AssignmentGradingRow assignment = assignmentRepository.findGradingRow(assignmentId)
+                .orElseThrow(() -> new RuntimeException("Assignment not found"));
+        courseAccessService.requireTeacher(assignment.getCourseId(), teacherEmail);
+
+        Set<Long> ids = new HashSet<>();
+        for (BulkGradeItem item : request.getGrades()) {
+            ids.add(item.getSubmissionId());
+        }
+        // old marks are read under the row locks, a concurrent grading of the same rows waits for this one
+        submissionRepository.lockForGrading(assignmentId, ids);
+        Map<Long, SubmissionGradeRow> submissions = new HashMap<>();
+        for (SubmissionGradeRow row : submissionRepository.findGradeRows(assignmentId, ids)) {
+            submissions.put(row.getSubmissionId(), row);
+        }
+
+        BulkGradeResponse response = new BulkGradeResponse(assignmentId);
+        List<Object[]> updates = new ArrayList<>();
+        List<MarkChange> markChanges = new ArrayList<>();
+        Map<String, String> notifications = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (BulkGradeItem item : request.getGrades()) {
+            SubmissionGradeRow submission = submissions.get(item.getSubmissionId());
+            String error = null;
+            if (!seen.add(item.getSubmissionId())) {
+                error = "Duplicate submission in request";
+            } else if (submission == null) {
+                error = "Submission not found for this assignment";
+            } else if (item.getMarks() < 0) {
+                error = "Marks cannot be negative.";
+            } else if (item.getMarks() > assignment.getMaxMarks()) {
+                error = "Given marks exceeds max marks.";
+            }
+            if (error != null) {
+                response.add(new BulkGradeItemResult(item.getSubmissionId(), item.getMarks(),
+                        BulkGradeItemResult.FAILED, error));
+                continue;
+            }
+
+            updates.add(new Object[]{item.getMarks(), item.getSubmissionId(), assignmentId});
+            markChanges.add(new MarkChange(submission.getAcquiredMarks(), item.getMarks()));
+            notifications.put(submission.getStudentEmail(),
+                    "Your assignment \"" + assignment.getTitle() + "\" in course \"" + assignment.getCourseTitle() +
+                            "\" has been graded.\n" +
+                            "You scored: " + item.getMarks() + " out of " + assignment.getMaxMarks() + ".");
+            response.add(new BulkGradeItemResult(item.getSubmissionId(), item.getMarks(),
+                    submission.getAcquiredMarks() == null ? BulkGradeItemResult.GRADED : BulkGradeItemResult.REGRADED,
+                    null));
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE assignment_submission SET acquired_marks = ? WHERE id = ? AND assignment_id = ?",
+                    updates);
+            gradeStatsService.onGraded(assignmentId, markChanges);
+            contentVersionService.submissionsChanged(
+                    updates.stream().map(update -> (Long) update[1]).toList(), assignment.getCourseId());
+            emailService.queueEmails(notifications, "Assignment Graded: " + assignment.getTitle());
+        }
+        businessMetrics.count("gradings", "graded", markChanges.stream().filter(change -> change.oldMarks() == null).count());
+        businessMetrics.count("gradings", "regraded", markChanges.stream().filter(change -> change.oldMarks() != null).count());
+        businessMetrics.count("gradings", "rejected", request.getGrades().size() - markChanges.size());
+        return response;
+    }
+
+    @Transactional(readOnly = true)
     public List<AssignmentSubmissionResponse> getSubmissionsForAssignment(Long assignmentId
             , String teacherEmail) {
-        User teacher = userRepository.findByEmail(teacherEmail)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
-        if (teacher.getRoles().stream().noneMatch(role -> role.getName().equals("TEACHER"))) {
-            throw new RuntimeException("Only teachers can update courses");
-        }
+        courseAccessService.requireTeacher(courseAccessService.courseIdOfAssignment(assignmentId), teacherEmail);
         return submissionRepository.findByAssignmentId(assignmentId)
                 .stream()
                 .map(s -> new AssignmentSubmissionResponse(
@@ -251,6 +392,41 @@ public class AssignmentSubmissionService {
                 )).toList();
     }
 
+    /**
+     * The assignment's submissions in pages of at most size, ordered by submission id. fields may hold
+     * "files"; without it the file paths are not queried and files stays null.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<AssignmentSubmissionResponse> getSubmissionPage(Long assignmentId, String teacherEmail,
+                                                                     Long afterId, int size, Set<String> fields) {
+        boolean withFiles = resolveFields(fields, SUBMISSION_FIELDS).contains("files");
+        courseAccessService.requireTeacher(courseAccessService.courseIdOfAssignment(assignmentId), teacherEmail);
+        int pageSize = clampPageSize(size);
+        List<SubmissionPageRow> rows = submissionRepository.findPageRowsAfter(
+                assignmentId, afterId == null ? 0 : afterId, PageRequest.of(0, pageSize + 1));
+        KeysetPage<SubmissionPageRow> page = KeysetPage.of(rows, pageSize, SubmissionPageRow::getSubmissionId, row -> row);
+
+        Map<Long, List<String>> files = new HashMap<>();
+        if (withFiles && !page.getItems().isEmpty()) {
+            List<Long> ids = page.getItems().stream().map(SubmissionPageRow::getSubmissionId).toList();
+            for (SubmissionFilePathRow row : submissionRepository.findFilePathRows(ids)) {
+                files.computeIfAbsent(row.getSubmissionId(), k -> new ArrayList<>()).add(row.getFilePath());
+            }
+        }
+
+        List<AssignmentSubmissionResponse> items = page.getItems().stream()
+                .map(row -> new AssignmentSubmissionResponse(
+                        row.getSubmissionId(),
+                        assignmentId,
+                        row.getStudentEmail(),
+                        row.getSubmittedAt(),
+                        withFiles ? files.getOrDefault(row.getSubmissionId(), new ArrayList<>()) : null,
+                        row.getAcquiredMarks()
+                )).toList();
+        return new KeysetPage<>(items, page.getNextAfterId());
+    }
+
+    @Transactional(readOnly = true)
     public AssignmentSubmission getSubmissionDetails(Long assignmentId, String studentEmail) {
         User student = userRepository.findByEmail(studentEmail)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
@@ -267,9 +443,14 @@ public class AssignmentSubmissionService {
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
         AssignmentSubmission submission = submissionRepository
-                .findByAssignmentIdAndStudentId(assignmentId, student.getId())
+                .findForUpdate(assignmentId, student.getId())
                 .orElseThrow(() -> new RuntimeException("No submission found"));
 
+        // A draft is not in the submitted count, unsubmitting it again must not take it off twice
+        if (submission.getStatus() != SubmissionStatus.SUBMITTED) {
+            throw new RuntimeException("Submission is already a draft");
+        }
+
         // Check due date
         if (assignment.getDueDate() != null && LocalDateTime.now().isAfter(assignment.getDueDate())) {
             throw new RuntimeException("Cannot unsubmit after due date");
@@ -283,10 +464,13 @@ public class AssignmentSubmissionService {
         try {
             submission.setStatus(SubmissionStatus.DRAFT);
             submissionRepository.save(submission);
+            gradeStatsService.onUnsubmitted(assignmentId);
+            contentVersionService.submissionsChanged(List.of(submission.getId()), assignment.getCourse().getId());
         } catch (Exception e) {
             log.error(e.getMessage());
             throw new RuntimeException("An error occurred updating submission to draft status.");
         }
+        businessMetrics.count("submissions", "unsubmitted");
 
         return AssignmentUnSubmitResponse.builder()
                 .submissionId(submission.getId())
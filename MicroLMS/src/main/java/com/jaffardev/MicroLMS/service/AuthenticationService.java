@@ -3,17 +3,21 @@ package com.jaffardev.MicroLMS.service;
 import com.jaffardev.MicroLMS.dto.LoginUserRequest;
 import com.jaffardev.MicroLMS.dto.RegisterUserRequest;
 import com.jaffardev.MicroLMS.dto.UpdateUserRequest;
+import com.jaffardev.MicroLMS.metrics.BusinessMetrics;
 import com.jaffardev.MicroLMS.model.Role;
 import com.jaffardev.MicroLMS.model.Teacher;
 import com.jaffardev.MicroLMS.model.User;
 import com.jaffardev.MicroLMS.repository.RoleRepository;
 import com.jaffardev.MicroLMS.repository.TeacherRepository;
 import com.jaffardev.MicroLMS.repository.UserRepository;
+import com.jaffardev.MicroLMS.security.UserStatusCache;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +31,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @Transactional
 @Slf4j
+@Timed("lms.service")
 public class AuthenticationService {
 
     private final UserRepository userRepository;
@@ -34,10 +39,15 @@ public class AuthenticationService {
     private final TeacherRepository teacherRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final UserStatusCache userStatusCache;
+    private final CourseDetailCache courseDetailCache;
+    private final ContentVersionService contentVersionService;
+    private final BusinessMetrics businessMetrics;
 
     @Transactional
     public User registerUser(RegisterUserRequest userRequest) {
         if (userRepository.existsByEmail(userRequest.getEmail())) {
+            businessMetrics.count("registrations", "email_in_use");
             throw new IllegalArgumentException("Email already in use");
         }
         Set<Role> roles = new HashSet<>();
@@ -62,19 +72,25 @@ public class AuthenticationService {
                 : userRepository.save(user);
 
         emailService.sendVerificationEmail(savedUser);
+        businessMetrics.count("registrations", "registered");
         return savedUser;
     }
 
-    @Transactional()
+    // The refreshed verification code and its queued email must survive the "not verified" error
+    @Transactional(noRollbackFor = DisabledException.class)
     public User loginUser(LoginUserRequest userRequest) {
-        User user = userRepository.findByEmail(userRequest.getEmail())
-                .orElseThrow(() -> new BadCredentialsException("Invalid email or password."));
-
-        if (!passwordEncoder.matches(userRequest.getPassword(), user.getPassword())) {
+        User user = userRepository.findByEmail(userRequest.getEmail()).orElse(null);
+        if (user == null || !passwordEncoder.matches(userRequest.getPassword(), user.getPassword())) {
+            businessMetrics.count("logins", "bad_credentials");
             throw new BadCredentialsException("Invalid email or password.");
         }
 
         if (!user.isEnabled()) {  // or user.isVerified() or your field
+            // a login loop must not flood the inbox: the link already on its way stays valid
+            if (emailService.isVerificationEmailRecent(user.getEmail())) {
+                businessMetrics.count("logins", "unverified");
+                throw new DisabledException("Account not verified. Please verify your email.");
+            }
             user.setVerificationCode(UUID.randomUUID().toString());
             try {
                 userRepository.saveAndFlush(user);
@@ -82,20 +98,25 @@ public class AuthenticationService {
                 throw new RuntimeException(e);
             }
             emailService.sendVerificationEmail(user);
-            throw new RuntimeException("Account not verified. Please verify your email.");
+            businessMetrics.count("logins", "unverified");
+            throw new DisabledException("Account not verified. Please verify your email.");
         }
 
+        businessMetrics.count("logins", "success");
         return user;
     }
 
     public boolean verifyUser(String code){
         User user = userRepository.findByVerificationCode(code);
         if (user == null) {
+            businessMetrics.count("verifications", "invalid_code");
             return false;
         }
         user.setEnabled(true);
         user.setVerificationCode(null); // clear the code
         userRepository.save(user);
+        userStatusCache.evict(user.getEmail());
+        businessMetrics.count("verifications", "verified");
         return true;
     }
 
@@ -118,12 +139,14 @@ public class AuthenticationService {
     public boolean resetPassword(String code, String newPassword) {
         User user = userRepository.findByResetCode(code);
         if (user == null || user.getResetCodeExpiry().isBefore(LocalDateTime.now())) {
+            businessMetrics.count("password_resets", "invalid_code");
             return false;
         }
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setResetCode(null);
         user.setResetCodeExpiry(null);
         userRepository.save(user);
+        businessMetrics.count("password_resets", "reset");
         return true;
     }
 
@@ -156,9 +179,15 @@ public class AuthenticationService {
 
         if (user instanceof Teacher teacher) {
             teacherRepository.save(teacher);
+            if (updateUserRequest.getFullName() != null) {
+                courseDetailCache.evictCoursesOfTeacher(teacher.getId());
+            }
         } else {
             userRepository.save(user);
         }
+        if (updateUserRequest.getFullName() != null) {
+            contentVersionService.userRenamed(user.getId());
+        }
     }
 
     public void deleteUser(String email) {
@@ -166,6 +195,7 @@ public class AuthenticationService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.delete(user);
+        userStatusCache.evict(email);
     }
 
     public void deleteUser(String email, String adminMail) {
@@ -180,6 +210,7 @@ public class AuthenticationService {
         }
 
         userRepository.delete(user);
+        userStatusCache.evict(email);
     }
 
     public Teacher getPublicInfo(Long userId) {
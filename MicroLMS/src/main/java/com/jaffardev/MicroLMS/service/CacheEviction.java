@@ -0,0 +1,26 @@
+package com.jaffardev.MicroLMS.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts now and again once the surrounding transaction completes, so a read that raced the
+ * transaction cannot put the pre-commit state back into a local cache.
+ */
+final class CacheEviction {
+
+    private CacheEviction() {
+    }
+
+    static void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.dto.VersionRow;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.AssignmentSubmissionRepository;
+import com.jaffardev.MicroLMS.repository.CourseRepository;
+import com.jaffardev.MicroLMS.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Content versions behind the ETags of the polled read endpoints.
+ * Every write that changes what a course, assignment or submission view shows bumps a counter on the
+ * row in the same transaction. The ETag is computed from those counters alone, so a poll with a
+ * matching If-None-Match is answered with 304 after a primary key lookup, before any entity loading.
+ * The version is read before the body is built: a write in between only costs the client one extra 200.
+ */
+@Service
+@RequiredArgsConstructor
+public class ContentVersionService {
+
+    private final CourseRepository courseRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final AssignmentSubmissionRepository submissionRepository;
+    private final UserRepository userRepository;
+    private final CourseAccessService courseAccessService;
+
+    // --- Bumps, called inside the transaction that made the change ---
+
+    @Transactional
+    public void courseChanged(Long courseId) {
+        courseRepository.bumpContentVersion(courseId);
+    }
+
+    @Transactional
+    public void assignmentChanged(Long assignmentId, Long courseId) {
+        assignmentRepository.bumpContentVersion(assignmentId);
+        courseRepository.bumpContentVersion(courseId); // the course view lists it
+    }
+
+    // Submission state is shown on the course views too
+    @Transactional
+    public void submissionsChanged(Collection<Long> submissionIds, Long courseId) {
+        if (!submissionIds.isEmpty()) {
+            submissionRepository.bumpContentVersions(submissionIds);
+        }
+        courseRepository.bumpContentVersion(courseId);
+    }
+
+    @Transactional
+    public void userRenamed(Long userId) {
+        courseRepository.bumpContentVersionsOfUser(userId);
+    }
+
+    // --- ETags; each checks access first so a 304 never answers for someone who would get an error ---
+
+    /** GET /api/course/{id}: the body depends on the viewer, so the viewer is part of the tag. */
+    @Transactional(readOnly = true)
+    public String courseEtag(Long courseId, String email) {
+        CourseAccess access = courseAccessService.requireMember(courseId, email);
+        long version = courseRepository.findContentVersion(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        return etag("c" + courseId + "." + version + "." + access.getUserId());
+    }
+
+    /** GET /api/course/list-courses: the user's course ids and their versions. */
+    @Transactional(readOnly = true)
+    public String courseListEtag(String email) {
+        Long teacherId = userRepository.findIdByEmailAndRole(email, "TEACHER").orElse(null);
+        Long userId = teacherId != null ? teacherId : userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        List<VersionRow> rows = teacherId != null
+                ? courseRepository.findVersionRowsByTeacherId(teacherId)
+                : courseRepository.findVersionRowsByStudentId(userId);
+
+        StringBuilder key = new StringBuilder("l").append(userId);
+        for (VersionRow row : rows) {
+            key.append(';').append(row.getId()).append('.').append(row.getVersion());
+        }
+        return etag(digest(key.toString()));
+    }
+
+    /** GET /api/assignment/{id}: same body for every member of the course. */
+    @Transactional(readOnly = true)
+    public String assignmentEtag(Long assignmentId, String email) {
+        courseAccessService.requireMember(courseAccessService.courseIdOfAssignment(assignmentId), email);
+        long version = assignmentRepository.findContentVersion(assignmentId)
+                .orElseThrow(() -> new RuntimeException("Assignment not found"));
+        return etag("a" + assignmentId + "." + version);
+    }
+
+    /** GET /api/submissions/{assignmentId}/getSubmissionStatus: the caller's own submission. */
+    @Transactional(readOnly = true)
+    public String submissionEtag(Long assignmentId, String email) {
+        return submissionRepository.findVersionRow(assignmentId, email)
+                .map(row -> etag("s" + row.getId() + "." + row.getVersion()))
+                .orElseGet(() -> etag("s-none." + assignmentId));
+    }
+
+    private static String etag(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jaffardev.MicroLMS.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** What a user is to one course, as resolved (and cached) by CourseAccessService. */
+@Getter
+@AllArgsConstructor
+public class CourseAccess {
+    public enum Role { TEACHER, STUDENT, NONE }
+
+    private final Long userId;
+    private final Role role;
+
+    public boolean isTeacher() {
+        return role == Role.TEACHER;
+    }
+
+    public boolean isStudent() {
+        return role == Role.STUDENT;
+    }
+
+    public boolean isMember() {
+        return role != Role.NONE;
+    }
+}
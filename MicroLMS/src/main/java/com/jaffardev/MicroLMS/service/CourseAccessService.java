@@ -0,0 +1,117 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jaffardev.MicroLMS.dto.CourseMembershipRow;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+import static com.jaffardev.MicroLMS.config.ReadWriteRoutingDataSource.onPrimary;
+
+/**
+ * The one place that answers "is this user the teacher or a student of this course".
+ * A miss costs a single query over the course row and the course_students key; the answer is kept in
+ * a bounded per-node cache until enrolment changes or the course is deleted (or ttl-seconds pass, which
+ * bounds staleness on other nodes). Course-scoped services call require* before doing any work.
+ */
+@Service
+public class CourseAccessService {
+
+    private final CourseRepository courseRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final Cache<String, CourseAccess> memberships;
+    private final Cache<Long, Long> assignmentCourses;
+
+    public CourseAccessService(CourseRepository courseRepository,
+                               AssignmentRepository assignmentRepository,
+                               @Value("${app.course-access.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${app.course-access.max-size:50000}") long maxSize) {
+        this.courseRepository = courseRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.memberships = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+        // an assignment never moves to another course, only the size bound applies
+        this.assignmentCourses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /** The user's relation to the course; throws if the course (or the user) does not exist. */
+    public CourseAccess access(Long courseId, String email) {
+        // read on the primary: a replica that hasn't caught up with an enrolment would be cached for ttl-seconds
+        CourseAccess access = memberships.get(key(courseId, email), key -> onPrimary(() -> courseRepository
+                .findMembershipRow(courseId, email)
+                .map(row -> new CourseAccess(row.getUserId(), roleOf(row)))
+                .orElse(null))); // not cached, the course or user may be created later
+        if (access == null) {
+            // only a failed lookup pays for telling the two cases apart
+            throw new RuntimeException(courseRepository.existsById(courseId) ? "User not found" : "Course not found");
+        }
+        return access;
+    }
+
+    public CourseAccess requireMember(Long courseId, String email) {
+        CourseAccess access = access(courseId, email);
+        if (!access.isMember()) {
+            throw new RuntimeException("You do not have access to this course");
+        }
+        return access;
+    }
+
+    public CourseAccess requireTeacher(Long courseId, String email) {
+        CourseAccess access = access(courseId, email);
+        if (!access.isTeacher()) {
+            throw new RuntimeException("You are not the teacher of this course");
+        }
+        return access;
+    }
+
+    public CourseAccess requireStudent(Long courseId, String email) {
+        CourseAccess access = access(courseId, email);
+        if (!access.isStudent()) {
+            throw new RuntimeException("You are not enrolled in this course");
+        }
+        return access;
+    }
+
+    public Long courseIdOfAssignment(Long assignmentId) {
+        Long courseId = assignmentCourses.get(assignmentId,
+                id -> onPrimary(() -> assignmentRepository.findCourseIdById(id).orElse(null)));
+        if (courseId == null) {
+            throw new RuntimeException("Assignment not found");
+        }
+        return courseId;
+    }
+
+    // --- Invalidation, repeated after commit (see CacheEviction) ---
+
+    public void onEnrollmentChanged(Long courseId, String email) {
+        CacheEviction.evict(() -> memberships.invalidate(key(courseId, email)));
+    }
+
+    public void onCourseDeleted(Long courseId) {
+        String prefix = courseId + ":";
+        CacheEviction.evict(() -> memberships.asMap().keySet().removeIf(key -> key.startsWith(prefix)));
+    }
+
+    public void onAssignmentDeleted(Long assignmentId) {
+        CacheEviction.evict(() -> assignmentCourses.invalidate(assignmentId));
+    }
+
+    private static CourseAccess.Role roleOf(CourseMembershipRow row) {
+        if (row.getUserId().equals(row.getTeacherId())) {
+            return CourseAccess.Role.TEACHER;
+        }
+        return Boolean.TRUE.equals(row.getEnrolled()) ? CourseAccess.Role.STUDENT : CourseAccess.Role.NONE;
+    }
+
+    private static String key(Long courseId, String email) {
+        return courseId + ":" + email;
+    }
+}
@@ -0,0 +1,153 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jaffardev.MicroLMS.dto.AssignmentDetailRow;
+import com.jaffardev.MicroLMS.dto.AssignmentMaterialRow;
+import com.jaffardev.MicroLMS.dto.CourseDetailRow;
+import com.jaffardev.MicroLMS.dto.CreateAssignmentResponse;
+import com.jaffardev.MicroLMS.model.Assignment;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.CourseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.jaffardev.MicroLMS.config.ReadWriteRoutingDataSource.onPrimary;
+
+/**
+ * Read-through cache of the parts of the course and assignment detail views that are the same for
+ * every viewer (titles, descriptions, materials, teacher name, assignment list). Per-user data such
+ * as submission status is merged in by the caller on every read. Entries are evicted by the writes
+ * that change them; hit/miss counts are exported as cache.gets{cache=courseDetail|assignmentDetail}.
+ */
+@Component
+public class CourseDetailCache {
+
+    private final CourseRepository courseRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final TransactionTemplate readOnly;
+    private final Cache<Long, CourseDetail> courses;
+    private final Cache<Long, CreateAssignmentResponse> assignments;
+
+    public CourseDetailCache(CourseRepository courseRepository,
+                             AssignmentRepository assignmentRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.detail-cache.courses-max-size:5000}") long coursesMaxSize,
+                             @Value("${app.detail-cache.assignments-max-size:50000}") long assignmentsMaxSize) {
+        this.courseRepository = courseRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.courses = Caffeine.newBuilder()
+                .maximumSize(coursesMaxSize)
+                .recordStats()
+                .build();
+        this.assignments = Caffeine.newBuilder()
+                .maximumSize(assignmentsMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, courses, "courseDetail");
+        CaffeineCacheMetrics.monitor(meterRegistry, assignments, "assignmentDetail");
+    }
+
+    /** Shared course detail; treat as read-only, it is handed to every viewer. */
+    public CourseDetail getCourse(Long courseId) {
+        // loaded from the primary, an entry built from a lagging replica would stay until the next eviction
+        CourseDetail detail = courses.get(courseId, id -> onPrimary(() -> readOnly.execute(status -> loadCourse(id))));
+        if (detail == null) {
+            throw new RuntimeException("Course not found");
+        }
+        return detail;
+    }
+
+    /** A copy, so callers may modify what they return. */
+    public CreateAssignmentResponse getAssignment(Long assignmentId) {
+        CreateAssignmentResponse cached = assignments.get(assignmentId,
+                id -> onPrimary(() -> readOnly.execute(status -> loadAssignment(id))));
+        if (cached == null) {
+            throw new RuntimeException("Assignment not found");
+        }
+        return CreateAssignmentResponse.builder()
+                .title(cached.getTitle())
+                .description(cached.getDescription())
+                .maxMarks(cached.getMaxMarks())
+                .materials(new ArrayList<>(cached.getMaterials()))
+                .courseId(cached.getCourseId())
+                .dueDate(cached.getDueDate())
+                .build();
+    }
+
+    // --- Invalidation, repeated after commit (see CacheEviction) ---
+
+    public void evictCourse(Long courseId) {
+        CacheEviction.evict(() -> courses.invalidate(courseId));
+    }
+
+    public void evictAssignment(Long assignmentId, Long courseId) {
+        CacheEviction.evict(() -> {
+            assignments.invalidate(assignmentId);
+            courses.invalidate(courseId); // the course view lists its assignments
+        });
+    }
+
+    // The teacher name is part of every course they teach
+    public void evictCoursesOfTeacher(Long teacherId) {
+        CacheEviction.evict(() -> courses.asMap().values()
+                .removeIf(detail -> detail.getCourse().getTeacherId().equals(teacherId)));
+    }
+
+    private CourseDetail loadCourse(Long courseId) {
+        CourseDetailRow course = courseRepository.findDetailRow(courseId).orElse(null);
+        if (course == null) {
+            return null; // not cached
+        }
+        List<AssignmentDetailRow> rows = assignmentRepository.findDetailRows(courseId);
+        Map<Long, List<String>> materials = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<Long> ids = rows.stream().map(AssignmentDetailRow::getId).toList();
+            for (AssignmentMaterialRow material : assignmentRepository.findMaterialRows(ids)) {
+                materials.computeIfAbsent(material.getAssignmentId(), k -> new ArrayList<>()).add(material.getFilePath());
+            }
+        }
+        return new CourseDetail(course, List.copyOf(rows), materials);
+    }
+
+    private CreateAssignmentResponse loadAssignment(Long assignmentId) {
+        Assignment assignment = assignmentRepository.findById(assignmentId).orElse(null);
+        if (assignment == null) {
+            return null;
+        }
+        return CreateAssignmentResponse.builder()
+                .title(assignment.getTitle())
+                .description(assignment.getDescription())
+                .dueDate(assignment.getDueDate())
+                .maxMarks(assignment.getMaxMarks())
+                .materials(List.copyOf(assignment.getMaterials()))
+                .courseId(assignment.getCourse().getId())
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CourseDetail {
+        private final CourseDetailRow course;
+        private final List<AssignmentDetailRow> assignments;
+        private final Map<Long, List<String>> materials;
+
+        public List<String> materialsOf(Long assignmentId) {
+            return materials.getOrDefault(assignmentId, List.of());
+        }
+    }
+}
@@ -1,30 +1,53 @@
 package com.jaffardev.MicroLMS.service;
 
 import com.jaffardev.MicroLMS.dto.*;
+import com.jaffardev.MicroLMS.metrics.BusinessMetrics;
 import com.jaffardev.MicroLMS.model.Assignment;
 import com.jaffardev.MicroLMS.model.AssignmentSubmission;
 import com.jaffardev.MicroLMS.model.Course;
 import com.jaffardev.MicroLMS.model.User;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.AssignmentSubmissionRepository;
 import com.jaffardev.MicroLMS.repository.CourseRepository;
 import com.jaffardev.MicroLMS.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.jaffardev.MicroLMS.storage.BlobStore;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.jaffardev.MicroLMS.utils.CommonUtils.clampPageSize;
 import static com.jaffardev.MicroLMS.utils.CommonUtils.generateInviteCode;
+import static com.jaffardev.MicroLMS.utils.CommonUtils.resolveFields;
 
 @Service
 @RequiredArgsConstructor
+@Timed("lms.service")
 public class CourseService {
+    // the parts of a course that fields= can leave out
+    private static final Set<String> COURSE_FIELDS = Set.of("assignments", "students");
+
 
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final TeacherStatisticsService teacherStatisticsService;
+    private final BlobStore blobStore;
+    private final AssignmentGradeStatsService gradeStatsService;
+    private final CourseAccessService courseAccessService;
+    private final CourseDetailCache courseDetailCache;
+    private final AssignmentSubmissionRepository submissionRepository;
+    private final ContentVersionService contentVersionService;
+    private final BusinessMetrics businessMetrics;
 
     public CreateCourseResponse createCourse(CreateCourseRequest request, String teacherEmail) {
         User teacher = userRepository.findByEmail(teacherEmail)
@@ -39,15 +62,12 @@ public class CourseService {
         course.setInviteCode(generateUniqueInviteCode());
 
         Course savedCourse = courseRepository.save(course);
+        teacherStatisticsService.onCourseCreated(teacher.getId());
         return mapToCourseResponse(savedCourse);
     }
 
     public CreateCourseResponse updateCourse(UpdateCourseRequest request, String teacherEmail) {
-        User teacher = userRepository.findByEmail(teacherEmail)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
-        if (teacher.getRoles().stream().noneMatch(role -> role.getName().equals("TEACHER"))) {
-            throw new RuntimeException("Only teachers can update courses");
-        }
+        courseAccessService.requireTeacher(request.getId(), teacherEmail);
 
         Optional<Course> existingCourse = courseRepository.findById(request.getId());
         if (existingCourse.isEmpty()) {
@@ -59,6 +79,8 @@ public class CourseService {
         course.setDescription(request.getDescription());
 
         Course savedCourse = courseRepository.save(course);
+        courseDetailCache.evictCourse(course.getId());
+        contentVersionService.courseChanged(course.getId());
         return mapToCourseResponse(savedCourse);
     }
 
@@ -69,19 +91,8 @@ public class CourseService {
             throw new RuntimeException("Not authorized.");
         }
 
-        List<ListCoursesResponse> courses =  getCoursesByUserEmail(email);
-        int totalCourses = courses.size();
-        int totalStudents = courses.stream()
-                .mapToInt(listCoursesResponse -> listCoursesResponse.getEnrolledStudents().size())
-                .sum();
-        int totalAssignments = courses.stream()
-                .mapToInt(listCoursesResponse -> listCoursesResponse.getAssignments().size())
-                .sum();
-        return ProfileSpecialInfoResponse.builder()
-                .totalCourses(totalCourses)
-                .totalStudents(totalStudents)
-                .totalAssignments(totalAssignments)
-                .build();
+        // Plain COUNTs (or the maintained counters), nothing gets loaded just to call size()
+        return teacherStatisticsService.getStatistics(teacher.getId());
     }
 
     private CreateCourseResponse mapToCourseResponse(Course course) {
@@ -93,145 +104,176 @@ public class CourseService {
         return response;
     }
 
-    public void enrollStudentToCourse(String email, String inviteCode) {
-        Course course = courseRepository.findByInviteCode(inviteCode)
+    /**
+     * Enrolls the student with a single course_students insert.
+     *
+     * @return false if the student was already enrolled
+     */
+    @Transactional
+    public boolean enrollStudentToCourse(String email, String inviteCode) {
+        CourseOwnerRow course = courseRepository.findOwnerRowByInviteCode(inviteCode)
                 .orElseThrow(() -> new RuntimeException("Invalid invite code"));
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Check if user has role "STUDENT"
-        boolean isStudent = user.getRoles().stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase("STUDENT"));
-
-        if (!isStudent) {
-            throw new RuntimeException("User is not a student");
-        }
+        Long studentId = findStudentId(email, "User not found", "User is not a student");
 
-        if (course.getStudents().contains(user)) {
-            throw new RuntimeException("User already enrolled in the course");
+        boolean enrolled = courseRepository.insertEnrollment(course.getCourseId(), studentId) > 0;
+        if (enrolled) {
+            teacherStatisticsService.onStudentEnrolled(course.getTeacherId(), studentId);
+            courseAccessService.onEnrollmentChanged(course.getCourseId(), email);
+            contentVersionService.courseChanged(course.getCourseId());
         }
-
-        course.getStudents().add(user);
-        courseRepository.save(course);
+        businessMetrics.count("enrollments", enrolled ? "enrolled" : "already_enrolled");
+        return enrolled;
     }
 
+    /**
+     * Removes the enrollment with a single course_students delete.
+     *
+     * @return false if the student was not enrolled in the first place
+     */
+    @Transactional
+    public boolean unenrollStudentFromCourse(Long courseId, String teacherEmail, String studentEmail) {
+        Long teacherId = courseAccessService.requireTeacher(courseId, teacherEmail).getUserId();
 
-    public void unenrollStudentFromCourse(Long courseId, String teacherEmail, String studentEmail) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
-
-        User teacher = userRepository.findByEmail(teacherEmail)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        Long studentId = findStudentId(studentEmail, "Student not found", "The user is not a student");
 
-        if (!course.getTeacher().getId().equals(teacher.getId())) {
-            throw new RuntimeException("You are not authorized to unenroll students from this course");
+        boolean removed = courseRepository.deleteEnrollment(courseId, studentId) > 0;
+        if (removed) {
+            teacherStatisticsService.onStudentUnenrolled(teacherId, studentId);
+            courseAccessService.onEnrollmentChanged(courseId, studentEmail);
+            contentVersionService.courseChanged(courseId);
         }
+        businessMetrics.count("unenrollments", removed ? "removed" : "not_enrolled");
+        return removed;
+    }
 
-        User student = userRepository.findByEmail(studentEmail)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        boolean isStudent = student.getRoles().stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase("STUDENT"));
+    private Long findStudentId(String email, String notFoundMessage, String notStudentMessage) {
+        return userRepository.findIdByEmailAndRole(email, "STUDENT")
+                .orElseThrow(() -> new RuntimeException(
+                        // only pay for the second lookup when we need to explain the failure
+                        userRepository.existsByEmail(email) ? notStudentMessage : notFoundMessage));
+    }
 
-        if (!isStudent) {
-            throw new RuntimeException("The user is not a student");
-        }
+    @Transactional(readOnly = true)
+    public List<ListCoursesResponse> getCoursesByUserEmail(String email) {
+        return getCoursesByUserEmail(email, null);
+    }
 
-        if (!course.getStudents().contains(student)) {
-            throw new RuntimeException("Student is not enrolled in this course");
-        }
+    /** fields picks "assignments" and/or "students"; the queries for the others are not run. */
+    @Transactional(readOnly = true)
+    public List<ListCoursesResponse> getCoursesByUserEmail(String email, Set<String> fields) {
+        Set<String> selected = resolveFields(fields, COURSE_FIELDS);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean isTeacher = isTeacher(user);
 
-        course.getStudents().remove(student);
-        courseRepository.save(course);
+        // Flat projections only: no Course/Assignment/Submission entities are hydrated here
+        List<CourseListingRow> courses = isTeacher
+                ? courseRepository.findListingRowsByTeacherId(user.getId())
+                : courseRepository.findListingRowsByStudentId(user.getId());
+        return toListings(courses, user.getId(), isTeacher, selected);
     }
 
-    public List<ListCoursesResponse> getCoursesByUserEmail(String email) {
+    /** Same listing in pages of at most size courses, ordered by course id. */
+    @Transactional(readOnly = true)
+    public KeysetPage<ListCoursesResponse> getCoursePage(String email, Long afterId, int size, Set<String> fields) {
+        Set<String> selected = resolveFields(fields, COURSE_FIELDS);
+        int pageSize = clampPageSize(size);
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean isTeacher = isTeacher(user);
+        long after = afterId == null ? 0 : afterId;
+
+        List<CourseListingRow> rows = isTeacher
+                ? courseRepository.findListingRowsByTeacherIdAfter(user.getId(), after, PageRequest.of(0, pageSize + 1))
+                : courseRepository.findListingRowsByStudentIdAfter(user.getId(), after, PageRequest.of(0, pageSize + 1));
+        KeysetPage<CourseListingRow> page = KeysetPage.of(rows, pageSize, CourseListingRow::getId, row -> row);
+        return new KeysetPage<>(toListings(page.getItems(), user.getId(), isTeacher, selected), page.getNextAfterId());
+    }
 
-        boolean isTeacher = user.getRoles().stream()
+    private static boolean isTeacher(User user) {
+        return user.getRoles().stream()
                 .anyMatch(role -> role.getName().equalsIgnoreCase("TEACHER"));
+    }
 
-        List<Course> courses;
-        if (isTeacher) {
-            // This now fetches course + assignments + submissions in 1 query
-            courses = courseRepository.findByTeacherIdOptimized(user.getId());
-        } else {
-            // This also fetches course + assignments + submissions in 1 query
-            courses = courseRepository.findByStudentsContainingOptimized(user);
+    private List<ListCoursesResponse> toListings(List<CourseListingRow> courses, Long userId,
+                                                 boolean isTeacher, Set<String> fields) {
+        if (courses.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // Map Course entities to CourseResponse DTOs
-        // Map Course entities to CourseResponse DTOs
+        List<Long> courseIds = courses.stream().map(CourseListingRow::getId).toList();
+
+        // For teachers the "mine" join simply never matches, same as the old per-student filter
+        Map<Long, List<AssignmentInCourseResponse>> assignmentsByCourse = fields.contains("assignments")
+                ? assignmentRepository.findListingRows(courseIds, userId)
+                        .stream()
+                        .collect(Collectors.groupingBy(AssignmentListingRow::getCourseId,
+                                Collectors.mapping(this::mapToAssignmentInCourse, Collectors.toList())))
+                : null;
+
+        Map<Long, List<Map<String, String>>> studentsByCourse = isTeacher && fields.contains("students")
+                ? courseRepository.findEnrolledStudentRows(courseIds).stream()
+                        .collect(Collectors.groupingBy(EnrolledStudentRow::getCourseId,
+                                Collectors.mapping(s -> Map.of("name", s.getFullName(), "email", s.getEmail()),
+                                        Collectors.toList())))
+                : null;
+
         return courses.stream()
                 .map(course -> {
                     ListCoursesResponse dto = new ListCoursesResponse();
                     dto.setId(course.getId());
                     dto.setTitle(course.getTitle());
                     dto.setDescription(course.getDescription());
-                    dto.setTeacherName(course.getTeacher().getFullName());
+                    dto.setTeacherName(course.getTeacherName());
 
                     if (isTeacher) {
                         dto.setInviteCode(course.getInviteCode());
-                        dto.setEnrolledStudents(course.getStudents().stream()
-                                .map(s -> Map.of("name", s.getFullName(), "email", s.getEmail()))
-                                .collect(Collectors.toList()));
                     }
-
-                    // Consolidated Assignment Mapping
-                    dto.setAssignments(course.getAssignments().stream()
-                            .map(assignment -> {
-                                // For teachers, this defaults to false (which is fine)
-                                // For students, it checks the actual submission status
-                                AssignmentSubmission studentSubmission = assignment.getSubmissions().stream()
-                                        .filter(s -> s.getStudent().getEmail().equals(email))
-                                        .findFirst()
-                                        .orElse(null);
-
-                                boolean submitted = studentSubmission != null;
-                                boolean graded = submitted && studentSubmission.getAcquiredMarks() != null;
-
-                                return AssignmentInCourseResponse.builder()
-                                        .id(assignment.getId())
-                                        .title(assignment.getTitle())
-                                        .description(assignment.getDescription())
-                                        .dueDate(assignment.getDueDate())
-                                        .maxMarks(assignment.getMaxMarks())
-                                        .isSubmittedByStudent(submitted)
-                                        .submissionDate(submitted ? studentSubmission.getSubmittedAt() : null)
-                                        .submissions(assignment.getSubmissions().stream()
-                                                .map(AssignmentSubmission::getId)
-                                                .collect(Collectors.toList()))
-                                        .aquiredMarks(graded ? studentSubmission.getAcquiredMarks() : null)
-                                        .build();
-                            })
-                            .collect(Collectors.toList()));
-
+                    // left null (and out of the JSON) when not selected
+                    if (studentsByCourse != null) {
+                        dto.setEnrolledStudents(studentsByCourse.getOrDefault(course.getId(), new ArrayList<>()));
+                    }
+                    if (assignmentsByCourse != null) {
+                        dto.setAssignments(assignmentsByCourse.getOrDefault(course.getId(), new ArrayList<>()));
+                    }
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
+    private AssignmentInCourseResponse mapToAssignmentInCourse(AssignmentListingRow row) {
+        boolean submitted = row.getMySubmissionId() != null;
+        return AssignmentInCourseResponse.builder()
+                .id(row.getId())
+                .courseId(row.getCourseId())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .dueDate(row.getDueDate())
+                .maxMarks(row.getMaxMarks())
+                .isSubmittedByStudent(submitted)
+                .submissionDate(submitted ? row.getMySubmittedAt() : null)
+                .submissionCount(row.getSubmissionCount())
+                .aquiredMarks(submitted ? row.getMyAcquiredMarks() : null)
+                .build();
+    }
+
     @Transactional
     public void deleteCourse(Long courseId, String teacherEmail) {
-        User teacher = userRepository.findByEmail(teacherEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Check if user is a teacher
-        boolean isTeacher = teacher.getRoles().stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase("TEACHER"));
-
-        if (!isTeacher) {
-            throw new RuntimeException("Only teachers can delete courses");
-        }
+        // Only the teacher who owns the course can delete it
+        Long teacherId = courseAccessService.requireTeacher(courseId, teacherEmail).getUserId();
 
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
 
-        // Only the teacher who owns the course can delete it
-        if (!course.getTeacher().getId().equals(teacher.getId())) {
-            throw new RuntimeException("You are not authorized to delete this course");
+        // the cascade removes assignments and submissions, their files are released here
+        for (Assignment assignment : course.getAssignments()) {
+            blobStore.releaseAll(assignment.getMaterials());
+            for (AssignmentSubmission submission : assignment.getSubmissions()) {
+                blobStore.releaseAll(submission.getFilePaths());
+            }
+            courseAccessService.onAssignmentDeleted(assignment.getId());
+            courseDetailCache.evictAssignment(assignment.getId(), courseId);
         }
 
         try {
@@ -239,58 +281,54 @@ public class CourseService {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        teacherStatisticsService.onCourseDeleted(teacherId);
+        gradeStatsService.onCourseDeleted(courseId);
+        courseAccessService.onCourseDeleted(courseId);
+        courseDetailCache.evictCourse(courseId);
     }
 
+    @Transactional(readOnly = true)
     public GetCourseResponse getCourse(Long courseId, String email) throws RuntimeException {
-        User u = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Use findById instead of getReferenceById to avoid LazyInitialization issues
-        // when accessing fields like teacher and assignments.
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
+        return getCourse(courseId, email, null);
+    }
 
-        boolean isTeacher = u.getRoles().stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase("TEACHER"));
+    /** fields picks "assignments" and/or "students"; the roster and submission queries are skipped otherwise. */
+    @Transactional(readOnly = true)
+    public GetCourseResponse getCourse(Long courseId, String email, Set<String> fields) throws RuntimeException {
+        Set<String> selected = resolveFields(fields, COURSE_FIELDS);
+        // --- Access Control Check (Do this BEFORE loading data) ---
+        CourseAccess access = courseAccessService.requireMember(courseId, email);
+        boolean isTeacher = access.isTeacher();
 
-        // --- Access Control Check (Do this BEFORE mapping data) ---
-        if (isTeacher) {
-            if (!course.getTeacher().getId().equals(u.getId())) {
-                throw new RuntimeException("You do not have permission to view this course.");
-            }
-        } else {
-            if (!course.getStudents().contains(u)) {
-                throw new RuntimeException("You are not enrolled in this course.");
-            }
-        }
+        // The shared part comes from the cache, only the viewer's own data is queried per request
+        CourseDetailCache.CourseDetail detail = courseDetailCache.getCourse(courseId);
 
         GetCourseResponse res = new GetCourseResponse();
-        res.setTitle(course.getTitle());
-        res.setDescription(course.getDescription());
+        res.setTitle(detail.getCourse().getTitle());
+        res.setDescription(detail.getCourse().getDescription());
 
         if (isTeacher) {
-            List<Map<String, String>> studentEmails = course.getStudents().stream()
-                    .map(user1 -> {
-                        Map<String, String> map = new HashMap<>();
-                        map.put("name", user1.getFullName());
-                        map.put("email", user1.getEmail());
-                        return map;
-                    })
-                    .collect(Collectors.toList());
-
-            res.setEnrolledStudents(studentEmails);
-            res.setInviteCode(course.getInviteCode());
+            if (selected.contains("students")) {
+                res.setEnrolledStudents(enrolledStudentMaps(courseId));
+            }
+            res.setInviteCode(detail.getCourse().getInviteCode());
         } else {
-            res.setTeacherName(course.getTeacher().getFullName());
+            res.setTeacherName(detail.getCourse().getTeacherName());
+        }
+        if (!selected.contains("assignments")) {
+            return res;
         }
 
-        // --- Optimized Assignment Mapping ---
-        res.setAssignments(course.getAssignments().stream().map(assignment -> {
-            // Pre-calculate status for students
-            AssignmentSubmission studentSubmission = assignment.getSubmissions().stream()
-                    .filter(s -> s.getStudent().getEmail().equals(email))
-                    .findFirst()
-                    .orElse(null);
+        Map<Long, List<CourseSubmissionRow>> submissions = (isTeacher
+                ? submissionRepository.findCourseSubmissionRows(courseId)
+                : submissionRepository.findCourseSubmissionRowsOfStudent(courseId, access.getUserId()))
+                .stream()
+                .collect(Collectors.groupingBy(CourseSubmissionRow::getAssignmentId));
+
+        res.setAssignments(detail.getAssignments().stream().map(assignment -> {
+            List<CourseSubmissionRow> rows = submissions.getOrDefault(assignment.getId(), List.of());
+            // a student only ever gets their own row back
+            CourseSubmissionRow studentSubmission = isTeacher || rows.isEmpty() ? null : rows.get(0);
 
             boolean submitted = studentSubmission != null;
             boolean graded = submitted && studentSubmission.getAcquiredMarks() != null;
@@ -303,9 +341,9 @@ public class CourseService {
                     .dueDate(assignment.getDueDate())
                     .isSubmittedByStudent(submitted) // Now the frontend knows!
                     .submissionDate(submitted ? studentSubmission.getSubmittedAt() : null)
-                    .materials(assignment.getMaterials().stream().toList())
-                    .submissions(assignment.getSubmissions().stream()
-                            .map(AssignmentSubmission::getId)
+                    .materials(new ArrayList<>(detail.materialsOf(assignment.getId())))
+                    .submissions(rows.stream()
+                            .map(CourseSubmissionRow::getSubmissionId)
                             .collect(Collectors.toList()))
                     .aquiredMarks(graded ? studentSubmission.getAcquiredMarks() : null)
                     .build();
@@ -314,6 +352,27 @@ public class CourseService {
         return res;
     }
 
+    private List<Map<String, String>> enrolledStudentMaps(Long courseId) {
+        return courseRepository.findEnrolledStudentRows(List.of(courseId)).stream()
+                .map(student -> {
+                    Map<String, String> map = new HashMap<>();
+                    map.put("name", student.getFullName());
+                    map.put("email", student.getEmail());
+                    return map;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /** The course roster in pages of at most size students, ordered by user id. Teacher only. */
+    @Transactional(readOnly = true)
+    public KeysetPage<RosterStudentRow> getEnrolledStudents(Long courseId, String teacherEmail, Long afterId, int size) {
+        courseAccessService.requireTeacher(courseId, teacherEmail);
+        int pageSize = clampPageSize(size);
+        List<RosterStudentRow> rows = courseRepository.findRosterRowsAfter(
+                courseId, afterId == null ? 0 : afterId, PageRequest.of(0, pageSize + 1));
+        return KeysetPage.of(rows, pageSize, RosterStudentRow::getId, row -> row);
+    }
+
 
     private String generateUniqueInviteCode() {
         String code;
@@ -0,0 +1,179 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.metrics.BusinessMetrics;
+import com.jaffardev.MicroLMS.model.OutboxEmail;
+import com.jaffardev.MicroLMS.model.OutboxStatus;
+import com.jaffardev.MicroLMS.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the email outbox in batches.
+ * Each batch goes out through a single send(MimeMessage...) call, which JavaMailSenderImpl delivers
+ * over one SMTP connection instead of one connection per mail. Failed rows are retried with
+ * exponential backoff and dead-lettered after max-attempts. Outcomes are counted in
+ * lms.emails{outcome=sent|retried|dead}, the backlog is the lms.email.outbox.pending gauge.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEmailRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final BusinessMetrics businessMetrics;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.retry-base:30s}")
+    private Duration retryBase;
+
+    @Value("${app.mail.outbox.retry-max:6h}")
+    private Duration retryMax;
+
+    @Value("${app.mail.outbox.sent-retention:7d}")
+    private Duration sentRetention;
+
+    @PostConstruct
+    void registerGauges() {
+        // counted on every scrape, an index range scan on idx_email_outbox_due (status first)
+        Gauge.builder("lms.email.outbox.pending", outboxRepository,
+                        repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .description("Emails waiting in the outbox, including ones backing off after a failure")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> dispatchBatch()))) {
+            // keep going while batches come back full, there is more waiting
+        }
+    }
+
+    @Scheduled(cron = "${app.mail.outbox.purge-cron:0 0 * * * *}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status -> outboxRepository.deleteByStatusAndSentAtBefore(
+                OutboxStatus.SENT, LocalDateTime.now().minus(sentRetention)));
+        if (purged != null && purged > 0) {
+            log.info("Purged " + purged + " sent outbox emails");
+        }
+    }
+
+    private boolean dispatchBatch() {
+        List<OutboxEmail> due = outboxRepository.claimDue(LocalDateTime.now(), batchSize);
+        if (due.isEmpty()) {
+            return false;
+        }
+
+        List<OutboxEmail> sending = new ArrayList<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        for (OutboxEmail email : due) {
+            try {
+                messages.add(toMimeMessage(email));
+                sending.add(email);
+            } catch (MessagingException e) {
+                // a message that cannot even be built will not get better with retries
+                deadLetter(email, e);
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    batchFailure = e;
+                }
+            } catch (MailException e) {
+                batchFailure = e; // e.g. authentication, nothing was sent
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        for (int i = 0; i < sending.size(); i++) {
+            OutboxEmail email = sending.get(i);
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages.get(i));
+            if (failure == null) {
+                email.setStatus(OutboxStatus.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                sent++;
+            } else {
+                scheduleRetry(email, failure, now);
+            }
+        }
+        businessMetrics.count("emails", "sent", sent);
+        return due.size() == batchSize;
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), email.isHtml());
+        return message;
+    }
+
+    private void scheduleRetry(OutboxEmail email, Exception failure, LocalDateTime now) {
+        email.setAttempts(email.getAttempts() + 1);
+        if (email.getAttempts() >= maxAttempts) {
+            deadLetter(email, failure);
+            return;
+        }
+        // retry-base, 2x, 4x ... capped at retry-max
+        Duration delay = retryBase.multipliedBy(1L << Math.min(email.getAttempts() - 1, 30));
+        if (delay.compareTo(retryMax) > 0) {
+            delay = retryMax;
+        }
+        email.setNextAttemptAt(now.plus(delay));
+        email.setLastError(truncate(failure.getMessage()));
+        businessMetrics.count("emails", "retried");
+        log.warn("Email to " + email.getRecipient() + " failed (attempt " + email.getAttempts()
+                + "), retrying at " + email.getNextAttemptAt());
+    }
+
+    private void deadLetter(OutboxEmail email, Exception failure) {
+        email.setStatus(OutboxStatus.DEAD);
+        email.setLastError(truncate(failure.getMessage()));
+        businessMetrics.count("emails", "dead");
+        log.error("Giving up on email " + email.getId() + " to " + email.getRecipient(), failure);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -1,6 +1,11 @@
 package com.jaffardev.MicroLMS.service;
 
+import com.jaffardev.MicroLMS.metrics.BusinessMetrics;
+import com.jaffardev.MicroLMS.model.IdSequences;
+import com.jaffardev.MicroLMS.model.OutboxEmail;
 import com.jaffardev.MicroLMS.model.User;
+import com.jaffardev.MicroLMS.repository.OutboxEmailRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -9,17 +14,36 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("lms.service")
 public class EmailService {
 
+    private static final String VERIFICATION_SUBJECT = "Please verify your registration";
+    // a raw nextval is the top of an id block no Hibernate session was handed, so it can't collide
+    private static final String OUTBOX_INSERT = "INSERT INTO email_outbox " +
+            "(id, recipient, subject, body, html, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (nextval('" + IdSequences.OUTBOX_EMAILS + "'), ?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
     private final JavaMailSender mailSender;
+    private final OutboxEmailRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BusinessMetrics businessMetrics;
     @Value("${app.frontend-url}")
     private String frontendUrl;
+    @Value("${app.mail.verification-resend-interval:10m}")
+    private Duration verificationResendInterval;
 
     public void sendSimpleEmail(String to, String subject, String body) {
         SimpleMailMessage message = new SimpleMailMessage();
@@ -29,13 +53,54 @@ public class EmailService {
         mailSender.send(message);
     }
 
-    @Async
-    public void sendSimpleEmailAsync(String to, String subject, String body) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
-        mailSender.send(message);
+    // --- Outbox: rows commit or roll back with the caller's transaction, EmailOutboxDispatcher sends them ---
+
+    @Transactional
+    public void queueEmail(String to, String subject, String body) {
+        queue(to, subject, body, false);
+    }
+
+    @Transactional
+    public void queueHtmlEmail(String to, String subject, String htmlBody) {
+        queue(to, subject, htmlBody, true);
+    }
+
+    // Same mail to many recipients (e.g. a whole course) as one JDBC batch
+    @Transactional
+    public void queueEmails(Collection<String> recipients, String subject, String body) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(OUTBOX_INSERT, recipients.stream()
+                .map(to -> new Object[]{to, subject, body, false, now, now})
+                .toList());
+        businessMetrics.count("emails", "queued", recipients.size());
+    }
+
+    // Personalised mails with a shared subject (e.g. bulk grading) as one JDBC batch
+    @Transactional
+    public void queueEmails(Map<String, String> bodyByRecipient, String subject) {
+        if (bodyByRecipient.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(OUTBOX_INSERT, bodyByRecipient.entrySet().stream()
+                .map(e -> new Object[]{e.getKey(), subject, e.getValue(), false, now, now})
+                .toList());
+        businessMetrics.count("emails", "queued", bodyByRecipient.size());
+    }
+
+    private void queue(String to, String subject, String body, boolean html) {
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setHtml(html);
+        email.setNextAttemptAt(LocalDateTime.now());
+        email.setCreatedAt(email.getNextAttemptAt());
+        outboxRepository.save(email);
+        businessMetrics.count("emails", "queued");
     }
 
     public void sendHtmlEmail(String to, String subject, String htmlBody) {
@@ -54,8 +119,29 @@ public class EmailService {
     }
 
     public void sendVerificationEmail(User user) {
-        String toAddress = user.getEmail();
-        String subject = "Please verify your registration";
+        queueHtmlEmail(user.getEmail(), VERIFICATION_SUBJECT, verificationContent(user));
+    }
+
+    /** Whether a verification email to this address is still queued or was sent within the resend interval. */
+    public boolean isVerificationEmailRecent(String email) {
+        return outboxRepository.existsPendingOrSentSince(email, VERIFICATION_SUBJECT,
+                LocalDateTime.now().minus(verificationResendInterval));
+    }
+
+    // Bulk paths (roster import) queue the whole batch as one JDBC batch
+    @Transactional
+    public void sendVerificationEmails(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(OUTBOX_INSERT, users.stream()
+                .map(user -> new Object[]{user.getEmail(), VERIFICATION_SUBJECT, verificationContent(user), true, now, now})
+                .toList());
+        businessMetrics.count("emails", "queued", users.size());
+    }
+
+    private String verificationContent(User user) {
         String content = "Dear [[name]],<br>"
                 + "Please click the link below to verify your registration:<br>"
                 + "<h3><a href=\"[[URL]]\" target=\"_self\">VERIFY</a></h3>"
@@ -63,9 +149,7 @@ public class EmailService {
 
         content = content.replace("[[name]]", user.getFullName());
         String verifyURL = frontendUrl + "/verify?code=" + user.getVerificationCode();
-        content = content.replace("[[URL]]", verifyURL);
-
-        sendHtmlEmail(toAddress, subject, content);
+        return content.replace("[[URL]]", verifyURL);
     }
 
     public void sendPasswordResetEmail(User user) {
@@ -73,7 +157,7 @@ public class EmailService {
         String resetLink = frontendUrl + "/reset-password?code=" + user.getResetCode();
         String subject = "Password Reset Request";
         String body = "Click the link to reset your password: " + resetLink;
-        sendSimpleEmail(user.getEmail(), subject, body);
+        queueEmail(user.getEmail(), subject, body);
 
         /* There on front end we can simply send req to reset password endpoint along with reset code and
            new password. */
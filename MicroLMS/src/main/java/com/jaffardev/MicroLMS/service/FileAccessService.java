@@ -0,0 +1,82 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.storage.BlobStore;
+import com.jaffardev.MicroLMS.storage.ServedFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+public class FileAccessService {
+    // /uploads/<courseId>/<file> for materials, /uploads/<courseId>/assignments/<assignmentId>/<studentId>/<file> for submissions
+    private static final Pattern UPLOAD_PATH =
+            Pattern.compile("^/uploads/(\\d+)/(?:assignments/\\d+/(\\d+)/)?([^/.][^/]*)$");
+    private static final int STORED_NAME_PREFIX = 37; // "<uuid>-"
+
+    private final CourseAccessService courseAccessService;
+    private final BlobStore blobStore;
+
+    /**
+     * Course teachers can read everything under their course, enrolled students the materials and
+     * their own submission files. Membership comes from CourseAccessService, no entity is loaded.
+     */
+    @Transactional(readOnly = true)
+    public boolean canAccess(String logicalPath, String email) {
+        Matcher m = UPLOAD_PATH.matcher(logicalPath);
+        if (!m.matches()) {
+            return false;
+        }
+        CourseAccess access;
+        try {
+            access = courseAccessService.access(Long.valueOf(m.group(1)), email);
+        } catch (RuntimeException e) {
+            return false; // unknown course or user
+        }
+        if (access.isTeacher()) {
+            return true;
+        }
+        if (m.group(2) != null && !m.group(2).equals(access.getUserId().toString())) {
+            return false; // another student's submission
+        }
+        return access.isStudent();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ServedFile> resolve(String logicalPath) {
+        Matcher m = UPLOAD_PATH.matcher(logicalPath);
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+        String storedName = m.group(3);
+        String filename = storedName.length() > STORED_NAME_PREFIX
+                ? storedName.substring(STORED_NAME_PREFIX) : storedName;
+        try {
+            Optional<Path> blob = blobStore.findBlob(logicalPath);
+            if (blob.isPresent()) {
+                // the blob is named by its SHA-256, a strong validator that never changes
+                Path path = blob.get();
+                return Optional.of(new ServedFile(path, Files.size(path), "\"" + path.getFileName() + "\"", filename));
+            }
+            // uploads from before content addressing are served from their own path
+            Path path = Paths.get(logicalPath.substring(1));
+            if (!Files.isRegularFile(path)) {
+                return Optional.empty();
+            }
+            long size = Files.size(path);
+            String etag = "\"" + Long.toHexString(size) + "-"
+                    + Long.toHexString(Files.getLastModifiedTime(path).toMillis()) + "\"";
+            return Optional.of(new ServedFile(path, size, etag, filename));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jaffardev.MicroLMS.service;
+
+/**
+ * Fixed-layout mark histogram.
+ * Up to 100 max marks there is one bucket per mark, so counts, min/max and quantiles are exact; above
+ * that the range is split into 100 equal buckets. A grade change moves one count from the old mark's
+ * bucket to the new one's, so the aggregates are maintained incrementally.
+ */
+final class GradeHistogram {
+    static final int MAX_BUCKETS = 101;
+
+    private GradeHistogram() {
+    }
+
+    static int bucketCount(int maxMarks) {
+        return Math.min(Math.max(maxMarks, 0), MAX_BUCKETS - 1) + 1;
+    }
+
+    static int[] empty(int maxMarks) {
+        return new int[bucketCount(maxMarks)];
+    }
+
+    static int bucketOf(int marks, int maxMarks) {
+        if (maxMarks <= 0) {
+            return 0;
+        }
+        int clamped = Math.max(0, Math.min(marks, maxMarks));
+        return (int) ((long) clamped * (bucketCount(maxMarks) - 1) / maxMarks);
+    }
+
+    /** Lowest mark falling into the bucket. */
+    static int lowerBound(int bucket, int maxMarks) {
+        int last = bucketCount(maxMarks) - 1;
+        if (last == 0) {
+            return 0;
+        }
+        return (int) (((long) bucket * maxMarks + last - 1) / last);
+    }
+
+    /** Highest mark falling into the bucket. */
+    static int upperBound(int bucket, int maxMarks) {
+        int last = bucketCount(maxMarks) - 1;
+        return bucket >= last ? Math.max(maxMarks, 0) : lowerBound(bucket + 1, maxMarks) - 1;
+    }
+
+    /** Mark at quantile q (0..1), midpoint of the bucket holding that rank; null when empty. */
+    static Double quantile(int[] histogram, long total, double q, int maxMarks) {
+        if (total <= 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if (seen >= rank) {
+                return (lowerBound(b, maxMarks) + upperBound(b, maxMarks)) / 2.0;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,247 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.dto.GradebookAssignment;
+import com.jaffardev.MicroLMS.dto.GradebookResponse;
+import com.jaffardev.MicroLMS.dto.GradebookStudent;
+import com.jaffardev.MicroLMS.model.SubmissionStatus;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Students x assignments marks for a course.
+ * The matrix comes from one aggregate query returning a row per enrolled student with that student's
+ * marks folded into arrays, so 1,000 students x 100 assignments is 1,000 rows rather than 100,000.
+ * The CSV export writes each row as it is fetched from a server-side cursor.
+ */
+@Service
+@RequiredArgsConstructor
+public class GradebookService {
+    private static final int FETCH_SIZE = 200;
+
+    private static final String MATRIX_SQL =
+            "SELECT u.id, u.full_name, u.email, " +
+            "array_agg(a.id ORDER BY a.id) AS assignment_ids, " +
+            "array_agg(s.acquired_marks ORDER BY a.id) AS marks, " +
+            "array_agg(s.status ORDER BY a.id) AS statuses " +
+            "FROM course_students cs " +
+            "JOIN users u ON u.id = cs.student_id " +
+            "LEFT JOIN assignments a ON a.course_id = cs.course_id " +
+            "LEFT JOIN assignment_submission s ON s.assignment_id = a.id AND s.student_id = cs.student_id " +
+            "WHERE cs.course_id = ? " +
+            "GROUP BY u.id, u.full_name, u.email " +
+            "ORDER BY u.full_name, u.id";
+
+    private final CourseAccessService courseAccessService;
+    private final AssignmentRepository assignmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    public GradebookResponse getGradebook(Long courseId, String teacherEmail) {
+        checkTeacher(courseId, teacherEmail);
+        return readOnlyTransaction().execute(status -> {
+            List<GradebookAssignment> columns = assignmentRepository.findGradebookColumns(courseId);
+            Map<Long, Integer> columnIndex = indexOf(columns);
+            long[] markSums = new long[columns.size()];
+
+            GradebookResponse response = new GradebookResponse();
+            response.setCourseId(courseId);
+            response.setAssignments(columns);
+            response.setCourseMaxMarks(columns.stream().mapToInt(a -> nullToZero(a.getMaxMarks())).sum());
+
+            streamRows(courseId, columnIndex, row -> {
+                response.getStudents().add(row.student);
+                response.getMarks().add(row.marks);
+                addToTotals(columns, row, markSums);
+            });
+            setAverages(columns, markSums);
+            return response;
+        });
+    }
+
+    /** Checks access up front; the returned body streams the CSV without holding the matrix. */
+    public StreamingResponseBody exportCsv(Long courseId, String teacherEmail) {
+        checkTeacher(courseId, teacherEmail);
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try {
+                // the transaction keeps the cursor open while rows are written
+                readOnlyTransaction().executeWithoutResult(status -> {
+                    List<GradebookAssignment> columns = assignmentRepository.findGradebookColumns(courseId);
+                    long[] markSums = new long[columns.size()];
+                    int courseMax = columns.stream().mapToInt(a -> nullToZero(a.getMaxMarks())).sum();
+
+                    StringBuilder header = new StringBuilder("Student,Email");
+                    for (GradebookAssignment column : columns) {
+                        header.append(',').append(csv(column.getTitle() + " (/" + nullToZero(column.getMaxMarks()) + ")"));
+                    }
+                    header.append(",Total (/").append(courseMax).append(")\n");
+                    write(writer, header.toString());
+
+                    streamRows(courseId, indexOf(columns), row -> {
+                        StringBuilder line = new StringBuilder();
+                        line.append(csv(row.student.getFullName())).append(',').append(csv(row.student.getEmail()));
+                        for (Integer mark : row.marks) {
+                            line.append(',');
+                            if (mark != null) {
+                                line.append(mark);
+                            }
+                        }
+                        line.append(',').append(row.student.getTotalMarks()).append('\n');
+                        write(writer, line.toString());
+                        addToTotals(columns, row, markSums);
+                    });
+                    setAverages(columns, markSums);
+
+                    // the same per-assignment totals as the JSON gradebook, below the students
+                    StringBuilder submitted = new StringBuilder("Submitted,");
+                    StringBuilder graded = new StringBuilder("Graded,");
+                    StringBuilder average = new StringBuilder("Average,");
+                    for (GradebookAssignment column : columns) {
+                        submitted.append(',').append(column.getSubmitted());
+                        graded.append(',').append(column.getGraded());
+                        average.append(',');
+                        if (column.getAverageMarks() != null) {
+                            average.append(String.format(Locale.ROOT, "%.2f", column.getAverageMarks()));
+                        }
+                    }
+                    write(writer, submitted.append(",\n").toString());
+                    write(writer, graded.append(",\n").toString());
+                    write(writer, average.append(",\n").toString());
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private void checkTeacher(Long courseId, String teacherEmail) {
+        courseAccessService.requireTeacher(courseId, teacherEmail);
+    }
+
+    private void streamRows(Long courseId, Map<Long, Integer> columnIndex, Consumer<StudentRow> consumer) {
+        int width = columnIndex.size();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(MATRIX_SQL);
+            ps.setFetchSize(FETCH_SIZE); // cursor instead of the whole result in memory
+            ps.setLong(1, courseId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Object[] assignmentIds = arrayOf(rs.getArray("assignment_ids"));
+            Object[] marks = arrayOf(rs.getArray("marks"));
+            Object[] statuses = arrayOf(rs.getArray("statuses"));
+
+            GradebookStudent student = new GradebookStudent(rs.getLong(1), rs.getString(2), rs.getString(3), 0, 0, 0);
+            StudentRow row = new StudentRow(student, new Integer[width], new boolean[width]);
+            for (int k = 0; k < assignmentIds.length; k++) {
+                // columns are matched by id, an assignment created in between is simply left out
+                Integer j = assignmentIds[k] == null ? null : columnIndex.get(((Number) assignmentIds[k]).longValue());
+                if (j == null) {
+                    continue;
+                }
+                if (SubmissionStatus.SUBMITTED.name().equals(statuses[k])) {
+                    row.submitted[j] = true;
+                    student.setSubmitted(student.getSubmitted() + 1);
+                }
+                if (marks[k] != null) {
+                    row.marks[j] = ((Number) marks[k]).intValue();
+                    student.setGraded(student.getGraded() + 1);
+                    student.setTotalMarks(student.getTotalMarks() + row.marks[j]);
+                }
+            }
+            consumer.accept(row);
+        });
+    }
+
+    private static void addToTotals(List<GradebookAssignment> columns, StudentRow row, long[] markSums) {
+        for (int j = 0; j < columns.size(); j++) {
+            GradebookAssignment column = columns.get(j);
+            if (row.submitted[j]) {
+                column.setSubmitted(column.getSubmitted() + 1);
+            }
+            if (row.marks[j] != null) {
+                column.setGraded(column.getGraded() + 1);
+                markSums[j] += row.marks[j];
+            }
+        }
+    }
+
+    private static void setAverages(List<GradebookAssignment> columns, long[] markSums) {
+        for (int j = 0; j < columns.size(); j++) {
+            GradebookAssignment column = columns.get(j);
+            column.setAverageMarks(column.getGraded() == 0 ? null : (double) markSums[j] / column.getGraded());
+        }
+    }
+
+    private static Map<Long, Integer> indexOf(List<GradebookAssignment> columns) {
+        Map<Long, Integer> index = new HashMap<>();
+        for (int j = 0; j < columns.size(); j++) {
+            index.put(columns.get(j).getId(), j);
+        }
+        return index;
+    }
+
+    private static Object[] arrayOf(Array array) throws SQLException {
+        return array == null ? new Object[0] : (Object[]) array.getArray();
+    }
+
+    private static int nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        // a leading =, +, -, @, tab or CR makes spreadsheets evaluate the cell, so it is kept as text
+        boolean formula = !value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0;
+        if (!formula && value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + (formula ? "'" : "") + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void write(Writer writer, String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class StudentRow {
+        private final GradebookStudent student;
+        private final Integer[] marks;
+        private final boolean[] submitted;
+    }
+}
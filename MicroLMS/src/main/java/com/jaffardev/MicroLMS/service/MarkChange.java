@@ -0,0 +1,5 @@
+package com.jaffardev.MicroLMS.service;
+
+/** One grading as the grade statistics see it; null marks mean not graded (before) or ungraded (after). */
+public record MarkChange(Integer oldMarks, Integer newMarks) {
+}
@@ -0,0 +1,282 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.dto.CourseOwnerRow;
+import com.jaffardev.MicroLMS.dto.RosterImportResponse;
+import com.jaffardev.MicroLMS.dto.RosterImportRowResult;
+import com.jaffardev.MicroLMS.dto.UserIdRow;
+import com.jaffardev.MicroLMS.model.Role;
+import com.jaffardev.MicroLMS.model.User;
+import com.jaffardev.MicroLMS.repository.CourseRepository;
+import com.jaffardev.MicroLMS.repository.RoleRepository;
+import com.jaffardev.MicroLMS.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a CSV roster (email,fullName[,password]) into a course.
+ * The file is read line by line and handled in chunks: passwords are hashed on a bounded pool,
+ * new users and their roles go in as Hibernate JDBC batches and enrollments as one batched
+ * course_students insert per chunk. Verification emails are handed off, never sent inline.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RosterImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    // Not a BCrypt hash so it never matches; the student picks a password through the reset flow
+    private static final String NO_PASSWORD = "!";
+    private static final String ENROLL_STUDENTS = "INSERT INTO course_students (course_id, student_id) " +
+            "SELECT ?, unnest(?::bigint[]) ON CONFLICT DO NOTHING RETURNING student_id";
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final EmailService emailService;
+    private final TeacherStatisticsService teacherStatisticsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CourseAccessService courseAccessService;
+    private final ContentVersionService contentVersionService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.roster.hash-threads:0}")
+    private int hashThreads;
+
+    private ExecutorService hashPool;
+
+    @PostConstruct
+    public void init() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        hashPool = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    public RosterImportResponse importRoster(Long courseId, String teacherEmail, InputStream csv) throws IOException {
+        CourseOwnerRow course = courseRepository.findOwnerRowById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        Long teacherId = userRepository.findIdByEmail(teacherEmail)
+                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        if (!course.getTeacherId().equals(teacherId)) {
+            throw new RuntimeException("You are not authorized to import students into this course");
+        }
+        Role studentRole = roleRepository.findByName("STUDENT")
+                .orElseThrow(() -> new RuntimeException("Role not found: STUDENT"));
+
+        RosterImportResponse report = new RosterImportResponse();
+        Set<String> seen = new HashSet<>();
+        List<RosterRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || (lineNo == 1 && line.toLowerCase().startsWith("email"))) {
+                    continue; // skip blanks and the optional header
+                }
+                RosterRow row = parseRow(lineNo, line, seen, report);
+                if (row == null) {
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(courseId, studentRole, chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(courseId, studentRole, chunk, report);
+        }
+
+        if (report.getCreated() + report.getEnrolled() > 0) {
+            teacherStatisticsService.recompute(teacherId);
+        }
+        return report;
+    }
+
+    private void importChunk(Long courseId, Role studentRole, List<RosterRow> rows, RosterImportResponse report) {
+        List<String> emails = rows.stream().map(RosterRow::getEmail).toList();
+        Map<String, Long> existingStudents = userRepository.findIdRowsByEmailInAndRole(emails, "STUDENT").stream()
+                .collect(Collectors.toMap(UserIdRow::getEmail, UserIdRow::getId, (a, b) -> a));
+        Set<String> existingEmails = new HashSet<>(userRepository.findEmailsIn(emails));
+
+        List<RosterRow> toEnroll = new ArrayList<>();
+        List<RosterRow> toCreate = new ArrayList<>();
+        for (RosterRow row : rows) {
+            if (existingStudents.containsKey(row.getEmail())) {
+                row.setStudentId(existingStudents.get(row.getEmail()));
+                toEnroll.add(row);
+            } else if (existingEmails.contains(row.getEmail())) {
+                report.add(new RosterImportRowResult(row.getLine(), row.getEmail(),
+                        RosterImportRowResult.FAILED, "Existing account is not a student"));
+            } else {
+                toCreate.add(row);
+                toEnroll.add(row);
+            }
+        }
+
+        // BCrypt is the expensive part, so it runs in parallel and outside of the transaction
+        List<CompletableFuture<String>> hashes = toCreate.stream()
+                .map(row -> row.getPassword() == null
+                        ? CompletableFuture.completedFuture(NO_PASSWORD)
+                        : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.getPassword()), hashPool))
+                .toList();
+        CompletableFuture.allOf(hashes.toArray(new CompletableFuture[0])).join();
+
+        List<User> created = new ArrayList<>();
+        Set<Long> enrolled = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(CHUNK_SIZE);
+            Role role = entityManager.getReference(Role.class, studentRole.getId());
+
+            for (int i = 0; i < toCreate.size(); i++) {
+                RosterRow row = toCreate.get(i);
+                User user = new User();
+                user.setEmail(row.getEmail());
+                user.setFullName(row.getFullName());
+                user.setPassword(hashes.get(i).join());
+                user.setRoles(new HashSet<>(Set.of(role)));
+                user.setEnabled(false);
+                user.setVerificationCode(UUID.randomUUID().toString());
+                entityManager.persist(user);
+                created.add(user);
+            }
+            entityManager.flush(); // users + user_roles go out as batches
+            for (int i = 0; i < toCreate.size(); i++) {
+                toCreate.get(i).setStudentId(created.get(i).getId());
+            }
+            entityManager.clear();
+            // verification mails are queued with the users, a failed import leaves none behind
+            emailService.sendVerificationEmails(created);
+
+            Set<Long> newlyEnrolled = enroll(courseId, toEnroll.stream().map(RosterRow::getStudentId).toList());
+            if (!toEnroll.isEmpty()) {
+                contentVersionService.courseChanged(courseId);
+            }
+            for (RosterRow row : toEnroll) {
+                courseAccessService.onEnrollmentChanged(courseId, row.getEmail());
+            }
+            return newlyEnrolled;
+        });
+
+        Set<RosterRow> createdRows = Collections.newSetFromMap(new IdentityHashMap<>());
+        createdRows.addAll(toCreate);
+        for (RosterRow row : toEnroll) {
+            String status = createdRows.contains(row) ? RosterImportRowResult.CREATED
+                    : !enrolled.contains(row.getStudentId()) ? RosterImportRowResult.ALREADY_ENROLLED
+                    : RosterImportRowResult.ENROLLED;
+            report.add(new RosterImportRowResult(row.getLine(), row.getEmail(), status, null));
+        }
+    }
+
+    /**
+     * Enrolls the students in one statement and returns the ids that were not enrolled before. Batch update
+     * counts can't tell that: with reWriteBatchedInserts the driver folds the batch into one multi-row
+     * INSERT and reports SUCCESS_NO_INFO for every row.
+     */
+    private Set<Long> enroll(Long courseId, List<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ENROLL_STUDENTS);
+            ps.setLong(1, courseId);
+            ps.setArray(2, con.createArrayOf("bigint", studentIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+    }
+
+    private RosterRow parseRow(int lineNo, String line, Set<String> seen, RosterImportResponse report) {
+        List<String> fields = splitCsvLine(line);
+        String email = fields.get(0).trim();
+        String fullName = fields.size() > 1 ? fields.get(1).trim() : "";
+        String password = fields.size() > 2 && !fields.get(2).isBlank() ? fields.get(2) : null;
+
+        String error = null;
+        if (!EMAIL.matcher(email).matches()) {
+            error = "Invalid email";
+        } else if (fullName.isEmpty()) {
+            error = "Full name is required";
+        } else if (!seen.add(email)) {
+            error = "Duplicate email in file";
+        }
+        if (error != null) {
+            report.add(new RosterImportRowResult(lineNo, email, RosterImportRowResult.FAILED, error));
+            return null;
+        }
+        return new RosterRow(lineNo, email, fullName, password, null);
+    }
+
+    // Minimal RFC 4180 splitting: commas, double quoted fields and "" escapes
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class RosterRow {
+        private int line;
+        private String email;
+        private String fullName;
+        private String password;
+        private Long studentId;
+    }
+}
@@ -0,0 +1,97 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.dto.SubmissionFileRow;
+import com.jaffardev.MicroLMS.model.SubmissionStatus;
+import com.jaffardev.MicroLMS.repository.AssignmentSubmissionRepository;
+import com.jaffardev.MicroLMS.storage.ServedFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds the "all submissions" ZIP for an assignment while it is being sent.
+ * Only the file list is held in memory; each file is read through one fixed buffer straight into the
+ * response, so the archive never exists on disk or in the heap.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubmissionExportService {
+    // Formats that are already compressed, deflating them again only burns CPU
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of("pdf", "docx", "pptx", "png", "jpg", "jpeg");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CourseAccessService courseAccessService;
+    private final AssignmentSubmissionRepository submissionRepository;
+    private final FileAccessService fileAccessService;
+
+    /** Checks ownership and loads the file list up front; the returned body only streams. */
+    public StreamingResponseBody exportSubmissions(Long assignmentId, String teacherEmail) {
+        courseAccessService.requireTeacher(courseAccessService.courseIdOfAssignment(assignmentId), teacherEmail);
+
+        List<SubmissionFileRow> rows = submissionRepository.findFileRows(assignmentId, SubmissionStatus.SUBMITTED);
+        return out -> writeZip(rows, out);
+    }
+
+    private void writeZip(List<SubmissionFileRow> rows, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        Set<String> entryNames = new HashSet<>();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (SubmissionFileRow row : rows) {
+                Optional<ServedFile> file = fileAccessService.resolve(row.getFilePath());
+                if (file.isEmpty()) {
+                    log.warn("Skipping missing submission file in export: " + row.getFilePath());
+                    continue;
+                }
+                String folder = sanitize(row.getStudentName() + " (" + row.getStudentEmail() + ")");
+                String entryName = uniqueName(folder + "/" + sanitize(file.get().getFilename()), entryNames);
+
+                // STORED entries would need their CRC before the data, i.e. reading each file twice.
+                // Deflate level 0 writes stored blocks with a trailing descriptor in a single pass.
+                String extension = StringUtils.getFilenameExtension(entryName);
+                boolean compressed = extension != null && COMPRESSED_EXTENSIONS.contains(extension.toLowerCase());
+                zip.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+
+                ZipEntry entry = new ZipEntry(entryName);
+                entry.setLastModifiedTime(Files.getLastModifiedTime(file.get().getPath()));
+                zip.putNextEntry(entry);
+                try (InputStream in = Files.newInputStream(file.get().getPath())) {
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        zip.write(buffer, 0, n);
+                    }
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+
+    private static String uniqueName(String name, Set<String> taken) {
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        for (int i = 2; !taken.add(candidate); i++) {
+            candidate = dot > name.lastIndexOf('/')
+                    ? name.substring(0, dot) + " (" + i + ")" + name.substring(dot)
+                    : name + " (" + i + ")";
+        }
+        return candidate;
+    }
+}
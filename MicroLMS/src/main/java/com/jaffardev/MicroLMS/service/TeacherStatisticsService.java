@@ -0,0 +1,126 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.dto.ProfileSpecialInfoResponse;
+import com.jaffardev.MicroLMS.model.TeacherStatistics;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.CourseRepository;
+import com.jaffardev.MicroLMS.repository.TeacherStatisticsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Teacher profile numbers (courses, distinct students, assignments).
+ * By default they are three COUNT queries. With app.stats.counters-enabled the numbers are read from
+ * a teacher_statistics row that the enroll/unenroll and assignment create/delete paths keep current.
+ */
+@Service
+@RequiredArgsConstructor
+public class TeacherStatisticsService {
+
+    private final CourseRepository courseRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final TeacherStatisticsRepository statisticsRepository;
+
+    @Value("${app.stats.counters-enabled:false}")
+    private boolean countersEnabled;
+
+    @Transactional
+    public ProfileSpecialInfoResponse getStatistics(Long teacherId) {
+        if (!countersEnabled) {
+            return toResponse(computeFromCounts(teacherId));
+        }
+        // First read seeds the counters from the real tables, after that it's a primary key lookup
+        TeacherStatistics stats = statisticsRepository.findById(teacherId)
+                .orElseGet(() -> statisticsRepository.save(computeFromCounts(teacherId)));
+        return toResponse(stats);
+    }
+
+    @Transactional
+    public void onCourseCreated(Long teacherId) {
+        if (isTracked(teacherId)) {
+            statisticsRepository.addCourses(teacherId, 1);
+        }
+    }
+
+    @Transactional
+    public void onCourseDeleted(Long teacherId) {
+        // A course takes its roster and assignments with it, cheaper to just recount
+        recompute(teacherId);
+    }
+
+    /** Recounts a tracked teacher from scratch, for bulk changes such as roster imports. */
+    @Transactional
+    public void recompute(Long teacherId) {
+        if (!countersEnabled) {
+            return;
+        }
+        // counting under the lock, so an enroll waiting on it adjusts the recounted row and not a stale one
+        statisticsRepository.findForUpdate(teacherId).ifPresent(stats -> {
+            TeacherStatistics fresh = computeFromCounts(teacherId);
+            stats.setTotalCourses(fresh.getTotalCourses());
+            stats.setTotalStudents(fresh.getTotalStudents());
+            stats.setTotalAssignments(fresh.getTotalAssignments());
+        });
+    }
+
+    /** Call after the enrollment row exists. */
+    @Transactional
+    public void onStudentEnrolled(Long teacherId, Long studentId) {
+        // Only the student's first course with this teacher makes them a new distinct student. The count
+        // runs under the row lock, so of two enrolls of one student the second sees the first's row.
+        if (lockTracked(teacherId) && courseRepository.countEnrollmentsWithTeacher(teacherId, studentId) == 1) {
+            statisticsRepository.addStudents(teacherId, 1);
+        }
+    }
+
+    /** Call after the enrollment row is gone. */
+    @Transactional
+    public void onStudentUnenrolled(Long teacherId, Long studentId) {
+        if (lockTracked(teacherId) && courseRepository.countEnrollmentsWithTeacher(teacherId, studentId) == 0) {
+            statisticsRepository.addStudents(teacherId, -1);
+        }
+    }
+
+    @Transactional
+    public void onAssignmentCreated(Long teacherId) {
+        if (isTracked(teacherId)) {
+            statisticsRepository.addAssignments(teacherId, 1);
+        }
+    }
+
+    @Transactional
+    public void onAssignmentDeleted(Long teacherId) {
+        if (isTracked(teacherId)) {
+            statisticsRepository.addAssignments(teacherId, -1);
+        }
+    }
+
+    private boolean isTracked(Long teacherId) {
+        // Untracked teachers get their row built from COUNTs on the next read
+        return countersEnabled && statisticsRepository.existsById(teacherId);
+    }
+
+    // Like isTracked, but holds the teacher's row lock until commit
+    private boolean lockTracked(Long teacherId) {
+        return countersEnabled && statisticsRepository.findForUpdate(teacherId).isPresent();
+    }
+
+    private TeacherStatistics computeFromCounts(Long teacherId) {
+        return new TeacherStatistics(
+                teacherId,
+                courseRepository.countByTeacherId(teacherId),
+                courseRepository.countDistinctStudentsByTeacherId(teacherId),
+                assignmentRepository.countByTeacherId(teacherId)
+        );
+    }
+
+    private ProfileSpecialInfoResponse toResponse(TeacherStatistics stats) {
+        return ProfileSpecialInfoResponse.builder()
+                .totalCourses((int) stats.getTotalCourses())
+                .totalStudents((int) stats.getTotalStudents())
+                .totalAssignments((int) stats.getTotalAssignments())
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.jaffardev.MicroLMS.storage;
+
+import com.jaffardev.MicroLMS.model.BlobLink;
+import com.jaffardev.MicroLMS.repository.BlobLinkRepository;
+import com.jaffardev.MicroLMS.repository.StoredBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for uploads.
+ * Bytes live once under uploads/.blobs/<first two hex chars>/<sha256>; the "/uploads/..." paths kept on
+ * Assignment.materials and AssignmentSubmission.filePaths are logical names mapped to a blob through
+ * blob_links. stored_blobs.ref_count counts those names, and the file is only unlinked once it drops to
+ * zero, after the surrounding transaction commits. Storing and unlinking the same content serialize on
+ * its stored_blobs row: store references it before looking at the file, and the unlink re-checks the
+ * count with the row locked.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlobStore {
+
+    static final Path BLOB_ROOT = MultipartIngest.UPLOAD_ROOT.resolve(".blobs");
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final BlobLinkRepository blobLinkRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Adopts a freshly ingested file under logicalDir and returns its logical "/uploads/..." path.
+     * If the same content is already stored the new copy is dropped and the blob gains a reference.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public String store(IngestedFile file, Path logicalDir) throws IOException {
+        String sha256 = file.getSha256();
+        Path blob = blobPath(sha256);
+        Files.createDirectories(blob.getParent());
+        // the reference first: it locks the row, so the blob can't be unlinked from under this store
+        storedBlobRepository.addReference(sha256, file.getSize());
+
+        boolean created = false;
+        if (Files.exists(blob)) {
+            Files.deleteIfExists(file.getPath());
+        } else {
+            try {
+                Files.move(file.getPath(), blob, StandardCopyOption.ATOMIC_MOVE);
+                created = true;
+            } catch (FileAlreadyExistsException e) {
+                // same content landed concurrently
+                Files.deleteIfExists(file.getPath());
+            }
+        }
+
+        String logicalPath = "/" + logicalDir.resolve(file.getStoredName()).toString().replace('\\', '/');
+        blobLinkRepository.save(new BlobLink(logicalPath, sha256));
+
+        if (created) {
+            // a rolled back store must not leave an unreferenced blob behind
+            onCompletion(false, () -> deleteIfOrphaned(sha256));
+        }
+        return logicalPath;
+    }
+
+    /** Drops one logical path; the blob itself goes away with its last reference. */
+    @Transactional
+    public void release(String logicalPath) {
+        Optional<BlobLink> link = blobLinkRepository.findById(logicalPath);
+        if (link.isEmpty()) {
+            // written before uploads were content-addressed, the path is the file itself
+            onCompletion(true, () -> deleteQuietly(Paths.get(logicalPath.substring(1))));
+            return;
+        }
+        String sha256 = link.get().getSha256();
+        blobLinkRepository.delete(link.get());
+        storedBlobRepository.removeReference(sha256);
+        if (storedBlobRepository.deleteIfUnreferenced(sha256) > 0) {
+            onCompletion(true, () -> deleteIfOrphaned(sha256));
+        }
+    }
+
+    @Transactional
+    public void releaseAll(Collection<String> logicalPaths) {
+        if (logicalPaths == null) {
+            return;
+        }
+        for (String logicalPath : logicalPaths) {
+            release(logicalPath);
+        }
+    }
+
+    /** Physical location of a logical path, empty if it was never stored here. */
+    @Transactional(readOnly = true)
+    public Optional<Path> findBlob(String logicalPath) {
+        return blobLinkRepository.findById(logicalPath)
+                .map(link -> blobPath(link.getSha256()));
+    }
+
+    static Path blobPath(String sha256) {
+        return BLOB_ROOT.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private void deleteIfOrphaned(String sha256) {
+        // runs after the releasing transaction ended, so in a transaction of its own
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> {
+            // a concurrent upload of the same content may have referenced it again in the meantime
+            if (storedBlobRepository.lockReferences(sha256) <= 0) {
+                deleteQuietly(blobPath(sha256));
+                storedBlobRepository.deleteIfUnreferenced(sha256);
+            }
+        });
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.error("Could not delete stored file: " + path, e);
+        }
+    }
+
+    private static void onCompletion(boolean committed, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (committed) {
+                action.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == committed) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.jaffardev.MicroLMS.storage;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+public class IngestedFile {
+    private final String fieldName;
+    private final String originalFilename;
+    private final String storedName;
+    private Path path;
+    private long size;
+    private String sha256;
+
+    public IngestedFile(String fieldName, String originalFilename, String storedName, Path path) {
+        this.fieldName = fieldName;
+        this.originalFilename = originalFilename;
+        this.storedName = storedName;
+        this.path = path;
+    }
+}
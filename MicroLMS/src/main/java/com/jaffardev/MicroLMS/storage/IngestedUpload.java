@@ -0,0 +1,50 @@
+package com.jaffardev.MicroLMS.storage;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Result of streaming a multipart request: the plain form fields and the files already on disk.
+ */
+@Slf4j
+@Getter
+public class IngestedUpload {
+    private final Map<String, List<String>> fields = new LinkedHashMap<>();
+    private final List<IngestedFile> files = new ArrayList<>();
+
+    void addField(String name, String value) {
+        fields.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+    }
+
+    void addFile(IngestedFile file) {
+        files.add(file);
+    }
+
+    public String getField(String name) {
+        List<String> values = fields.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    public List<String> getFieldValues(String name) {
+        return fields.getOrDefault(name, List.of());
+    }
+
+    public List<IngestedFile> getFiles(String fieldName) {
+        return files.stream().filter(f -> f.getFieldName().equals(fieldName)).toList();
+    }
+
+    /** Removes everything written for this request, used when the request fails after ingest. */
+    public void deleteFiles() {
+        for (IngestedFile file : files) {
+            try {
+                Files.deleteIfExists(file.getPath());
+            } catch (IOException e) {
+                log.error("Could not delete uploaded file: " + file.getPath(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.jaffardev.MicroLMS.storage;
+
+import com.jaffardev.MicroLMS.utils.CommonUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams multipart uploads straight to disk.
+ * Each file part is written through a FileChannel while its size and SHA-256 are computed in the
+ * same pass, and the size limits are enforced as bytes arrive rather than after buffering. Files land
+ * in uploads/.incoming and are then renamed into the {@link BlobStore}, on the same file system.
+ * Every file's size goes to lms.upload.size, every body's read time to lms.upload{outcome} and its
+ * bytes per second to lms.upload.throughput.
+ */
+@Component
+public class MultipartIngest {
+
+    public static final Path UPLOAD_ROOT = Paths.get("uploads");
+    private static final Path INCOMING = UPLOAD_ROOT.resolve(".incoming");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELD_SIZE = 64 * 1024;
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=(?:\"([^\"]+)\"|([^;\\s]+))");
+    private static final Pattern NAME = Pattern.compile("[;\\s]name=\"([^\"]*)\"");
+    private static final Pattern FILENAME = Pattern.compile("[;\\s]filename=\"([^\"]*)\"");
+
+    @Value("${spring.servlet.multipart.max-file-size:50MB}")
+    private DataSize maxFileSize;
+
+    @Value("${spring.servlet.multipart.max-request-size:50MB}")
+    private DataSize maxRequestSize;
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary fileSizes;
+    private final DistributionSummary throughput;
+
+    public MultipartIngest(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.fileSizes = DistributionSummary.builder("lms.upload.size")
+                .description("Size of uploaded files")
+                .baseUnit(BaseUnits.BYTES)
+                .maximumExpectedValue((double) DataSize.ofGigabytes(1).toBytes())
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder("lms.upload.throughput")
+                .description("Upload speed of multipart bodies with files")
+                .baseUnit("bytes.per.second")
+                .maximumExpectedValue((double) DataSize.ofGigabytes(1).toBytes())
+                .register(meterRegistry);
+    }
+
+    public IngestedUpload ingest(String contentType, InputStream body) throws IOException {
+        return ingest(contentType, body, upload -> {
+        });
+    }
+
+    /**
+     * Like ingest, with beforeFiles run on the fields read so far right before the first file part is
+     * written to disk, or at the end when there is none. An exception from it ends the upload there, so
+     * checks on the leading fields (who may upload to this course) run before any file is written.
+     */
+    public IngestedUpload ingest(String contentType, InputStream body,
+                                 Consumer<IngestedUpload> beforeFiles) throws IOException {
+        String boundary = boundaryOf(contentType);
+        long started = System.nanoTime();
+        IngestedUpload upload = new IngestedUpload();
+        MultipartStream stream = new MultipartStream(new LimitedInputStream(body, maxRequestSize.toBytes()),
+                boundary, BUFFER_SIZE);
+        boolean filesStarted = false;
+        try {
+            // skip the preamble up to the first boundary
+            if (!stream.readPart(MultipartStream.DISCARD)) {
+                throw new IOException("Missing multipart boundary");
+            }
+            while (stream.nextPartFollows()) {
+                String headers = stream.readHeaders();
+                String name = match(NAME, headers);
+                String filename = match(FILENAME, headers);
+
+                boolean complete;
+                if (filename == null) {
+                    ByteArrayOutputStream value = new ByteArrayOutputStream();
+                    complete = stream.readPart((buf, off, len) -> {
+                        if (value.size() + len > MAX_FIELD_SIZE) {
+                            throw new RuntimeException("Form field too large: " + name);
+                        }
+                        value.write(buf, off, len);
+                    });
+                    upload.addField(name, value.toString(StandardCharsets.UTF_8));
+                } else if (filename.isEmpty()) {
+                    complete = stream.readPart(MultipartStream.DISCARD); // empty file input
+                } else {
+                    if (!filesStarted) {
+                        filesStarted = true;
+                        beforeFiles.accept(upload);
+                    }
+                    complete = readFile(stream, name, filename, upload);
+                }
+                if (!complete) {
+                    throw new IOException("Unexpected end of multipart body");
+                }
+            }
+            if (!filesStarted) {
+                beforeFiles.accept(upload);
+            }
+        } catch (IOException | RuntimeException e) {
+            upload.deleteFiles();
+            uploadTimer("failure").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        record(upload, System.nanoTime() - started);
+        return upload;
+    }
+
+    private void record(IngestedUpload upload, long nanos) {
+        long bytes = 0;
+        for (IngestedFile file : upload.getFiles()) {
+            fileSizes.record(file.getSize());
+            bytes += file.getSize();
+        }
+        uploadTimer("success").record(nanos, TimeUnit.NANOSECONDS);
+        if (bytes > 0 && nanos > 0) {
+            throughput.record(bytes * 1e9 / nanos);
+        }
+    }
+
+    private Timer uploadTimer(String outcome) {
+        return Timer.builder("lms.upload")
+                .description("Time to read a multipart body to disk")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private boolean readFile(MultipartStream stream, String fieldName, String originalFilename,
+                             IngestedUpload upload) throws IOException {
+        if (!CommonUtils.isAllowedFilename(originalFilename)) {
+            throw new RuntimeException("Invalid file type: " + originalFilename);
+        }
+        Files.createDirectories(INCOMING);
+
+        String storedName = UUID.randomUUID() + "-" + StringUtils.getFilename(StringUtils.cleanPath(originalFilename));
+        IngestedFile file = new IngestedFile(fieldName, originalFilename, storedName, INCOMING.resolve(storedName));
+        upload.addFile(file); // registered first so a failure half way still gets cleaned up
+
+        MessageDigest sha256 = sha256();
+        long limit = maxFileSize.toBytes();
+        long[] size = {0};
+        boolean complete;
+        try (FileChannel channel = FileChannel.open(file.getPath(),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            complete = stream.readPart((buf, off, len) -> {
+                size[0] += len;
+                if (size[0] > limit) {
+                    throw new RuntimeException("File exceeds the maximum size of " + maxFileSize.toMegabytes()
+                            + "MB: " + originalFilename);
+                }
+                sha256.update(buf, off, len);
+                ByteBuffer slice = ByteBuffer.wrap(buf, off, len);
+                while (slice.hasRemaining()) {
+                    channel.write(slice);
+                }
+            });
+        }
+        file.setSize(size[0]);
+        file.setSha256(HexFormat.of().formatHex(sha256.digest()));
+        return complete;
+    }
+
+    private static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase().startsWith("multipart/")) {
+            throw new RuntimeException("Expected a multipart request");
+        }
+        Matcher m = BOUNDARY.matcher(contentType);
+        if (!m.find()) {
+            throw new RuntimeException("Multipart boundary missing");
+        }
+        return m.group(1) != null ? m.group(1) : m.group(2);
+    }
+
+    private static String match(Pattern pattern, String headers) {
+        Matcher m = pattern.matcher(headers);
+        return m.find() ? m.group(1) : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Enforces the request size limit while streaming, chunked bodies have no Content-Length to check
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > limit) {
+                throw new RuntimeException("Request exceeds the maximum upload size");
+            }
+        }
+    }
+}
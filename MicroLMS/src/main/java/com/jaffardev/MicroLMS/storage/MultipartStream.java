@@ -0,0 +1,138 @@
+package com.jaffardev.MicroLMS.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal streaming reader for multipart/form-data bodies.
+ * Part bodies are handed to a {@link Sink} in buffer-sized slices as they arrive, so a file part
+ * can go straight to its destination without the whole part (or a temp copy of it) existing first.
+ */
+class MultipartStream {
+
+    interface Sink {
+        void write(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    static final Sink DISCARD = (buffer, offset, length) -> { };
+
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final int MAX_HEADER_SIZE = 8 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean eof;
+
+    MultipartStream(InputStream in, String boundary, int bufferSize) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(bufferSize, MAX_HEADER_SIZE + delimiter.length)];
+        // Pretend the body starts with CRLF so the first boundary looks like every other one
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+    }
+
+    /**
+     * Streams everything up to the next boundary into the sink and consumes the boundary.
+     *
+     * @return false if the body ended before a boundary was found
+     */
+    boolean readPart(Sink sink) throws IOException {
+        while (true) {
+            int idx = indexOf(delimiter);
+            if (idx >= 0) {
+                if (idx > head) {
+                    sink.write(buffer, head, idx - head);
+                }
+                head = idx + delimiter.length;
+                return true;
+            }
+            // Only the last delimiter.length - 1 bytes can still turn out to be a boundary
+            int safe = tail - delimiter.length + 1;
+            if (safe > head) {
+                sink.write(buffer, head, safe - head);
+                head = safe;
+            }
+            if (!fill()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Reads the two bytes after a boundary.
+     *
+     * @return true if another part follows, false for the closing boundary
+     */
+    boolean nextPartFollows() throws IOException {
+        require(2);
+        boolean closing = buffer[head] == '-' && buffer[head + 1] == '-';
+        if (!closing && !(buffer[head] == '\r' && buffer[head + 1] == '\n')) {
+            throw new IOException("Malformed multipart boundary");
+        }
+        head += 2;
+        return !closing;
+    }
+
+    String readHeaders() throws IOException {
+        while (true) {
+            int idx = indexOf(HEADER_END);
+            if (idx >= 0) {
+                String headers = new String(buffer, head, idx - head, StandardCharsets.UTF_8);
+                head = idx + HEADER_END.length;
+                return headers;
+            }
+            if (tail - head >= MAX_HEADER_SIZE) {
+                throw new IOException("Multipart part headers too large");
+            }
+            if (!fill()) {
+                throw new IOException("Unexpected end of multipart body");
+            }
+        }
+    }
+
+    private void require(int n) throws IOException {
+        while (tail - head < n) {
+            if (!fill()) {
+                throw new IOException("Unexpected end of multipart body");
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int read = in.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        tail += read;
+        return true;
+    }
+
+    private int indexOf(byte[] pattern) {
+        int last = tail - pattern.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,16 @@
+package com.jaffardev.MicroLMS.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/** A file resolved and authorized for download. */
+@Getter
+@AllArgsConstructor
+public class ServedFile {
+    private final Path path;
+    private final long size;
+    private final String etag;
+    private final String filename;
+}
@@ -4,11 +4,33 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.security.SecureRandom;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.jaffardev.MicroLMS.controllers.AssignmentController.ALLOWED_EXTENSIONS;
 
 public class CommonUtils {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Validates a fields= selection against what the endpoint can leave out; no selection means all of
+     * them. Services use the result to skip the queries for parts nobody asked for.
+     */
+    public static Set<String> resolveFields(Set<String> requested, Set<String> available) {
+        if (requested == null || requested.isEmpty()) {
+            return available;
+        }
+        for (String field : requested) {
+            if (!available.contains(field)) {
+                throw new RuntimeException("Unknown field: " + field + ", expected any of " + available);
+            }
+        }
+        return requested;
+    }
 
     public static String generateInviteCode() {
         String chars = "abcdefghjkmnpqrstuvwxyz23456789"; // no confusing chars
@@ -24,7 +46,10 @@ public class CommonUtils {
     }
 
     public static boolean isValidFile(MultipartFile file) {
-        String filename = file.getOriginalFilename();
+        return isAllowedFilename(file.getOriginalFilename());
+    }
+
+    public static boolean isAllowedFilename(String filename) {
         if (filename == null) return false;
 
         String ext = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
@@ -0,0 +1,41 @@
+package com.jaffardev.MicroLMS.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Thin JDK proxies around JDBC objects (connections, statements, result sets) that pass every call
+ * through and let the caller look at, or replace, the result. Used by the DataSource wrappers that
+ * watch statements: write detection for replica routing and the per-request SQL counters.
+ */
+public final class JdbcProxies {
+
+    private JdbcProxies() {
+    }
+
+    @FunctionalInterface
+    public interface AfterCall {
+        Object apply(Method method, Object[] args, Object result) throws Throwable;
+    }
+
+    // equals/hashCode are identity based, so pools and Hibernate can keep the proxy in their maps
+    public static <T> T proxy(Class<T> type, Object target, AfterCall afterCall) {
+        return type.cast(Proxy.newProxyInstance(JdbcProxies.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    return afterCall.apply(method, args, result);
+                }));
+    }
+}
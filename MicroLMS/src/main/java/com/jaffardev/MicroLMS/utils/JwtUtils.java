@@ -1,52 +0,0 @@
-package com.jaffardev.MicroLMS.utils;
-
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.stereotype.Component;
-
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
-import io.jsonwebtoken.Jwts;
-
-import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.List;
-
-@Component
-public class JwtUtils {
-
-    @Value("${app.jwt.secret}")
-    private String secret;
-
-    private SecretKey getSignKey() {
-        // Must be at least 256 bits for HS256
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-    }
-
-    public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
-    }
-
-    public List<String> extractRoles(String token) {
-        return extractAllClaims(token).get("roles", List.class);
-    }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractEmail(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()                    // or parserBuilder()
-                .verifyWith(getSignKey())    // <-- new style
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-}
@@ -0,0 +1,90 @@
+-- Schema as ddl-auto=update created it before the schema moved to Flyway, constraint names included.
+-- Databases that already have it are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and continue with V2; everything added since lives in V2 and later.
+
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE courses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE assignments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE roles (
+    id   bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(20) NOT NULL UNIQUE
+);
+
+CREATE TABLE users (
+    id                  bigint       NOT NULL PRIMARY KEY,
+    user_type           varchar(31)  NOT NULL,
+    email               varchar(255),
+    password            varchar(255),
+    full_name           varchar(255),
+    enabled             boolean      NOT NULL,
+    verification_code   varchar(255),
+    reset_code          varchar(255),
+    department          varchar(255),
+    reset_code_expiry   timestamp(6)
+);
+
+CREATE TABLE teachers (
+    id    bigint NOT NULL PRIMARY KEY,
+    title varchar(255)
+);
+
+CREATE TABLE user_roles (
+    role_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    PRIMARY KEY (role_id, user_id)
+);
+
+CREATE TABLE courses (
+    id          bigint       NOT NULL PRIMARY KEY,
+    title       varchar(255),
+    description varchar(255),
+    invite_code varchar(255) NOT NULL UNIQUE,
+    teacher_id  bigint
+);
+
+CREATE TABLE course_students (
+    course_id  bigint NOT NULL,
+    student_id bigint NOT NULL,
+    PRIMARY KEY (course_id, student_id)
+);
+
+CREATE TABLE assignments (
+    id          bigint NOT NULL PRIMARY KEY,
+    description varchar(255),
+    max_marks   integer,
+    title       varchar(255),
+    due_date    timestamp(6),
+    course_id   bigint
+);
+
+CREATE TABLE assignment_materials (
+    assignment_id bigint NOT NULL,
+    file_path     varchar(255)
+);
+
+CREATE TABLE assignment_submission (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    assignment_id  bigint NOT NULL,
+    student_id     bigint NOT NULL,
+    submitted_at   timestamp(6),
+    acquired_marks integer,
+    status         varchar(255) CHECK (status IN ('DRAFT', 'SUBMITTED'))
+);
+
+CREATE TABLE submission_files (
+    submission_id bigint NOT NULL,
+    file_path     varchar(255)
+);
+
+ALTER TABLE teachers ADD CONSTRAINT FKpavufmal5lbtc60csriy8sx3 FOREIGN KEY (id) REFERENCES users;
+ALTER TABLE user_roles ADD CONSTRAINT FKh8ciramu9cc9q3qcqiv4ue8a6 FOREIGN KEY (role_id) REFERENCES roles;
+ALTER TABLE user_roles ADD CONSTRAINT FKhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE courses ADD CONSTRAINT FKt4ba5fab1x56tmt4nsypv5lm5 FOREIGN KEY (teacher_id) REFERENCES users;
+ALTER TABLE course_students ADD CONSTRAINT FKj5fbpmgy0y0es0gvk0311jor3 FOREIGN KEY (course_id) REFERENCES courses;
+ALTER TABLE course_students ADD CONSTRAINT FKcedy62b1kx0ll1ggwkh25ubxh FOREIGN KEY (student_id) REFERENCES users;
+ALTER TABLE assignments ADD CONSTRAINT FK6p1m72jobsvmrrn4bpj4168mg FOREIGN KEY (course_id) REFERENCES courses;
+ALTER TABLE assignment_materials ADD CONSTRAINT FKkwxmq94wvvoq282cpm7kb9opw FOREIGN KEY (assignment_id) REFERENCES assignments;
+ALTER TABLE assignment_submission ADD CONSTRAINT FK29r171wvxih05opab2e2x56tv FOREIGN KEY (assignment_id) REFERENCES assignments;
+ALTER TABLE assignment_submission ADD CONSTRAINT FKqsi9w45eary4louu2eds5a1r7 FOREIGN KEY (student_id) REFERENCES users;
+ALTER TABLE submission_files ADD CONSTRAINT FKccogsfadm1br6066ljbg4pstp FOREIGN KEY (submission_id) REFERENCES assignment_submission;
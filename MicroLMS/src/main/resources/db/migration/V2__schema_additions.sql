@@ -0,0 +1,75 @@
+-- Everything the application added on top of the V1 schema: pooled id sequences, content versions for
+-- conditional GETs, the precomputed statistics, the content-addressed blob store and the email outbox.
+
+-- Pooled sequences (IdSequences), moved past the ids handed out by the old per-entity sequences
+CREATE SEQUENCE user_ids START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE course_ids START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE assignment_ids START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE submission_ids START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE outbox_email_ids START WITH 1 INCREMENT BY 100;
+
+SELECT setval('user_ids', m) FROM (SELECT MAX(id) AS m FROM users) ids WHERE m IS NOT NULL;
+SELECT setval('course_ids', m) FROM (SELECT MAX(id) AS m FROM courses) ids WHERE m IS NOT NULL;
+SELECT setval('assignment_ids', m) FROM (SELECT MAX(id) AS m FROM assignments) ids WHERE m IS NOT NULL;
+SELECT setval('submission_ids', m) FROM (SELECT MAX(id) AS m FROM assignment_submission) ids WHERE m IS NOT NULL;
+
+-- submissions take their ids from submission_ids now, no longer from an identity column
+ALTER TABLE assignment_submission ALTER COLUMN id DROP IDENTITY IF EXISTS;
+DROP SEQUENCE IF EXISTS users_seq, courses_seq, assignments_seq;
+
+-- user_roles is keyed (role_id, user_id); loading a user's roles needs the reverse
+CREATE INDEX idx_user_roles_user ON user_roles (user_id, role_id);
+
+-- Bumped in SQL by ContentVersionService, never written by the entities
+ALTER TABLE courses ADD COLUMN content_version bigint NOT NULL DEFAULT 0;
+ALTER TABLE assignments ADD COLUMN content_version bigint NOT NULL DEFAULT 0;
+ALTER TABLE assignment_submission ADD COLUMN content_version bigint NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_assignments_course_due ON assignments (course_id, due_date, id);
+
+-- Rebuilt from the submissions when missing, so existing assignments and teachers need no backfill
+CREATE TABLE assignment_grade_stats (
+    assignment_id   bigint  NOT NULL PRIMARY KEY,
+    course_id       bigint,
+    max_marks       integer NOT NULL,
+    submitted_count bigint  NOT NULL,
+    graded_count    bigint  NOT NULL,
+    sum_marks       bigint  NOT NULL,
+    histogram       integer[]
+);
+
+CREATE TABLE teacher_statistics (
+    teacher_id        bigint NOT NULL PRIMARY KEY,
+    total_courses     bigint NOT NULL,
+    total_students    bigint NOT NULL,
+    total_assignments bigint NOT NULL
+);
+
+-- Uploads stored before these tables exist keep working by path (BlobStore.release falls back to it)
+CREATE TABLE stored_blobs (
+    sha256     varchar(64) NOT NULL PRIMARY KEY,
+    size       bigint      NOT NULL,
+    ref_count  bigint      NOT NULL,
+    created_at timestamp(6)
+);
+
+CREATE TABLE blob_links (
+    logical_path varchar(1024) NOT NULL PRIMARY KEY,
+    sha256       varchar(64)   NOT NULL
+);
+
+CREATE TABLE email_outbox (
+    id              bigint       NOT NULL PRIMARY KEY,
+    recipient       varchar(255) NOT NULL,
+    subject         varchar(255),
+    body            text,
+    html            boolean      NOT NULL,
+    status          varchar(255) NOT NULL CHECK (status IN ('PENDING', 'SENT', 'DEAD')),
+    attempts        integer      NOT NULL,
+    next_attempt_at timestamp(6),
+    last_error      varchar(1000),
+    created_at      timestamp(6),
+    sent_at         timestamp(6)
+);
+
+CREATE INDEX idx_email_outbox_due ON email_outbox (status, next_attempt_at);
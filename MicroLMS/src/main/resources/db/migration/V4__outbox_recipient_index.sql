@@ -0,0 +1,2 @@
+-- email_outbox: recent verification emails per recipient, checked before an unverified login re-sends one
+CREATE INDEX IF NOT EXISTS idx_email_outbox_recipient ON email_outbox (recipient);
@@ -0,0 +1,61 @@
+package com.jaffardev.MicroLMS;
+
+import com.jaffardev.MicroLMS.model.Role;
+import com.jaffardev.MicroLMS.model.Teacher;
+import com.jaffardev.MicroLMS.model.User;
+import com.jaffardev.MicroLMS.repository.RoleRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Users for tests against the shared database, built but not saved. Emails carry a random part so
+ * runs don't collide with each other or with real accounts.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /** An enabled teacher with the TEACHER role and an unusable password. */
+    public static Teacher teacher(RoleRepository roleRepository, String emailPrefix) {
+        Teacher teacher = new Teacher();
+        teacher.setEmail(uniqueEmail(emailPrefix));
+        teacher.setFullName("Test Teacher");
+        teacher.setPassword("-");
+        teacher.setEnabled(true);
+        teacher.setRoles(new HashSet<>(Set.of(role(roleRepository, "TEACHER"))));
+        return teacher;
+    }
+
+    /** count enabled students with the STUDENT role, emails numbered under one random prefix. */
+    public static List<User> students(RoleRepository roleRepository, String emailPrefix, int count) {
+        Role studentRole = role(roleRepository, "STUDENT");
+        String prefix = emailPrefix + "-" + run();
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User student = new User();
+            student.setEmail(prefix + "-" + i + "@example.com");
+            student.setFullName("Test Student " + i);
+            student.setEnabled(true);
+            student.setRoles(new HashSet<>(Set.of(studentRole)));
+            students.add(student);
+        }
+        return students;
+    }
+
+    public static String uniqueEmail(String prefix) {
+        return prefix + "-" + run() + "@example.com";
+    }
+
+    private static String run() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static Role role(RoleRepository roleRepository, String name) {
+        return roleRepository.findByName(name).orElseThrow();
+    }
+}
@@ -0,0 +1,116 @@
+package com.jaffardev.MicroLMS.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The "replica" here is the local database again under another ApplicationName, which is enough to
+ * see which pool served a transaction. Replication lag itself needs a real standby to observe.
+ * Like the other @SpringBootTest classes this needs the Postgres of application.yml running, the
+ * minilmsdb database on localhost:5432.
+ */
+@SpringBootTest(properties =
+        "app.datasource.replica.url=jdbc:postgresql://localhost:5432/minilmsdb?ApplicationName=microlms-replica")
+class RoutingDataSourceTests {
+
+    private static final String REPLICA = "microlms-replica";
+    private static final String APPLICATION_NAME = "SELECT current_setting('application_name')";
+    // an UPDATE that changes no row, still a write as far as routing is concerned
+    private static final String TOUCH = "UPDATE roles SET name = name WHERE id = -1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        lagMonitor.check(); // don't wait for the first scheduled check
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(lagMonitor.isLagging()).isFalse();
+        String served = readOnly.execute(status -> applicationName());
+        assertThat(served).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void readWriteTransactionsGoToThePrimary() {
+        String served = readWrite.execute(status -> applicationName());
+        assertThat(served).isNotEqualTo(REPLICA);
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnly() {
+        String served = ReadWriteRoutingDataSource.onPrimary(() -> readOnly.execute(status -> applicationName()));
+        assertThat(served).isNotEqualTo(REPLICA);
+    }
+
+    @Test
+    void aUserWhoJustWroteReadsFromThePrimary() {
+        signIn("writer-" + UUID.randomUUID());
+        readWrite.execute(status -> jdbcTemplate.update(TOUCH));
+        String servedWriter = readOnly.execute(status -> applicationName());
+        assertThat(servedWriter).isNotEqualTo(REPLICA);
+
+        signIn("reader-" + UUID.randomUUID());
+        String servedReader = readOnly.execute(status -> applicationName());
+        assertThat(servedReader).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void readingInAReadWriteTransactionIsNoWrite() {
+        signIn("reader-" + UUID.randomUUID());
+        readWrite.execute(status -> applicationName());
+        String served = readOnly.execute(status -> applicationName());
+        assertThat(served).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void aRolledBackWriteIsNoWrite() {
+        signIn("writer-" + UUID.randomUUID());
+        readWrite.execute(status -> {
+            jdbcTemplate.update(TOUCH);
+            status.setRollbackOnly();
+            return null;
+        });
+        String served = readOnly.execute(status -> applicationName());
+        assertThat(served).isEqualTo(REPLICA);
+    }
+
+    private String applicationName() {
+        return jdbcTemplate.queryForObject(APPLICATION_NAME, String.class);
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+}
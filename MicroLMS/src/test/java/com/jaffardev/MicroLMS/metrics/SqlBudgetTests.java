@@ -0,0 +1,79 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import com.jaffardev.MicroLMS.TestUsers;
+import com.jaffardev.MicroLMS.repository.RoleRepository;
+import com.jaffardev.MicroLMS.repository.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.jaffardev.MicroLMS.metrics.SqlStatements.assertAtMost;
+import static com.jaffardev.MicroLMS.metrics.SqlStatements.measure;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    private Long teacherId;
+
+    @BeforeEach
+    void setUp() {
+        teacherId = teacherRepository.save(TestUsers.teacher(roleRepository, "sql")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        teacherRepository.deleteById(teacherId);
+    }
+
+    @Test
+    void publicProfileStaysWithinItsBudget() throws Exception {
+        assertAtMost(2, () -> mockMvc.perform(get("/api/auth/{userId}/profile", teacherId))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void jdbcStatementsAndRowsAreCounted() throws Exception {
+        SqlStats stats = measure(() -> jdbcTemplate.queryForList("SELECT generate_series(1, 3)", Integer.class));
+
+        assertThat(stats.getStatements()).isEqualTo(1);
+        assertThat(stats.getRows()).isEqualTo(3);
+    }
+
+    @Test
+    void hydratedEntitiesAreCounted() throws Exception {
+        SqlStats stats = measure(() -> teacherRepository.findById(teacherId).orElseThrow());
+
+        assertThat(stats.getEntities()).isPositive(); // the teacher, plus its role unless cached
+    }
+
+    @Test
+    void repeatedStatementsAreReported() throws Exception {
+        String sql = "SELECT 1";
+        SqlStats stats = measure(() -> {
+            for (int i = 0; i < 3; i++) {
+                jdbcTemplate.queryForObject(sql, Integer.class);
+            }
+        });
+
+        assertThat(stats.repeated(3)).containsEntry(sql, 3);
+        assertThat(stats.repeated(4)).isEmpty();
+    }
+}
@@ -0,0 +1,33 @@
+package com.jaffardev.MicroLMS.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the SQL a block runs, typically one MockMvc controller call, so a new lazy traversal
+ * shows up as a failing statement count instead of a production regression.
+ */
+public final class SqlStatements {
+
+    @FunctionalInterface
+    public interface Call {
+        void run() throws Exception;
+    }
+
+    private SqlStatements() {
+    }
+
+    public static SqlStats measure(Call call) throws Exception {
+        try (SqlStats stats = SqlStats.open()) {
+            call.run();
+            return stats;
+        }
+    }
+
+    public static SqlStats assertAtMost(int maxStatements, Call call) throws Exception {
+        SqlStats stats = measure(call);
+        assertThat(stats.getStatements())
+                .as("SQL statements (repeated ones: %s)", stats.repeated(2))
+                .isLessThanOrEqualTo(maxStatements);
+        return stats;
+    }
+}
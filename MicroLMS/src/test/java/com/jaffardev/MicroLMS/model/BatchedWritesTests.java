@@ -0,0 +1,113 @@
+package com.jaffardev.MicroLMS.model;
+
+import com.jaffardev.MicroLMS.TestUsers;
+import com.jaffardev.MicroLMS.repository.RoleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk writes have to leave as JDBC batches: a batch is prepared once however many rows it carries,
+ * so the prepared statement count stays at one per table (plus a sequence call) instead of one per
+ * row. Everything is rolled back afterwards.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class BatchedWritesTests {
+
+    private static final int ROWS = 40;
+
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics stats;
+    private String run;
+
+    @BeforeEach
+    void setUp() {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        run = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void usersAndTheirRolesAreInsertedInBatches() {
+        List<User> students = newStudents();
+
+        stats.clear();
+        students.forEach(entityManager::persist);
+        entityManager.flush();
+
+        // nextval (twice at most when the sequence is fresh) + users + user_roles
+        assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void submissionsMaterialsAndFilesAreInsertedAndGradedInBatches() {
+        List<User> students = newStudents();
+        students.forEach(entityManager::persist);
+        User teacher = students.get(0);
+        Course course = new Course();
+        course.setTitle("Batch course");
+        course.setInviteCode("t" + run);
+        course.setTeacher(teacher);
+        entityManager.persist(course);
+        entityManager.flush();
+
+        stats.clear();
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Batch assignment");
+        assignment.setMaxMarks(100);
+        assignment.setDueDate(LocalDateTime.now().plusDays(7));
+        assignment.setCourse(course);
+        for (int i = 0; i < ROWS; i++) {
+            assignment.getMaterials().add("uploads/materials/" + run + "-" + i + ".pdf");
+        }
+        entityManager.persist(assignment);
+
+        List<AssignmentSubmission> submissions = new ArrayList<>();
+        for (User student : students) {
+            AssignmentSubmission submission = new AssignmentSubmission();
+            submission.setAssignment(assignment);
+            submission.setStudent(student);
+            submission.setSubmittedAt(LocalDateTime.now());
+            submission.getFilePaths().add("uploads/submissions/" + run + "-" + student.getEmail() + "-1.pdf");
+            submission.getFilePaths().add("uploads/submissions/" + run + "-" + student.getEmail() + "-2.pdf");
+            entityManager.persist(submission);
+            submissions.add(submission);
+        }
+        entityManager.flush();
+
+        // nextval for assignments and submissions (twice each at most) + assignments, assignment_materials,
+        // assignment_submission and submission_files
+        assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(8);
+
+        stats.clear();
+        submissions.forEach(s -> s.setAcquiredMarks(75));
+        entityManager.flush();
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private List<User> newStudents() {
+        return TestUsers.students(roleRepository, "batch", ROWS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.jaffardev.MicroLMS.model;
+
+import com.jaffardev.MicroLMS.TestUsers;
+import com.jaffardev.MicroLMS.repository.RoleRepository;
+import com.jaffardev.MicroLMS.repository.TeacherRepository;
+import com.jaffardev.MicroLMS.service.AuthenticationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Once warm, reference data comes out of the second-level cache without any SQL: role lookups by name
+ * (query cache + roles region) and a teacher's public profile (users region + users.roles collection).
+ */
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private TeacherRepository teacherRepository;
+    @Autowired
+    private AuthenticationService authenticationService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics stats;
+    private Long teacherId;
+
+    @BeforeEach
+    void setUp() {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+
+        Teacher teacher = TestUsers.teacher(roleRepository, "l2");
+        teacher.setTitle("Dr.");
+        teacherId = teacherRepository.save(teacher).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        teacherRepository.deleteById(teacherId);
+    }
+
+    @Test
+    void roleLookupByNameRunsNoSql() {
+        roleRepository.findByName("STUDENT").orElseThrow();
+
+        stats.clear();
+        Role role = roleRepository.findByName("STUDENT").orElseThrow();
+
+        assertThat(role.getName()).isEqualTo("STUDENT");
+        assertThat(stats.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void teacherProfileRunsNoSql() {
+        authenticationService.getPublicInfo(teacherId);
+
+        stats.clear();
+        Teacher teacher = authenticationService.getPublicInfo(teacherId);
+
+        assertThat(teacher.getTitle()).isEqualTo("Dr.");
+        assertThat(teacher.getRoles()).extracting(Role::getName).containsExactly("TEACHER");
+        assertThat(stats.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(stats.getPrepareStatementCount()).isZero();
+    }
+}
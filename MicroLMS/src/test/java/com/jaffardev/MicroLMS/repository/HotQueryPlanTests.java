@@ -0,0 +1,61 @@
+package com.jaffardev.MicroLMS.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the SQL behind the hot repository lookups and fails on a sequential scan. On a small test
+ * database the planner would pick seq scans anyway, so they are priced out for the transaction: a
+ * "Seq Scan" still showing up means no index can answer the query, e.g. a migration dropped it.
+ */
+@SpringBootTest
+@Transactional
+class HotQueryPlanTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // UserRepository
+            "SELECT id, enabled FROM users WHERE email = 'someone@example.com'",
+            "SELECT * FROM users WHERE verification_code = 'code'",
+            "SELECT * FROM users WHERE reset_code = 'code'",
+            "SELECT u.id FROM users u JOIN user_roles ur ON ur.user_id = u.id JOIN roles r ON r.id = ur.role_id " +
+                    "WHERE u.email = 'someone@example.com' AND r.name = 'STUDENT'",
+            // CourseRepository
+            "SELECT id FROM courses WHERE invite_code = 'abcdefg'",
+            "SELECT c.id, c.title FROM courses c WHERE c.teacher_id = 1 AND c.id > 0 ORDER BY c.id LIMIT 21",
+            "SELECT c.id, c.title FROM courses c JOIN course_students cs ON cs.course_id = c.id " +
+                    "WHERE cs.student_id = 1 AND c.id > 0 ORDER BY c.id LIMIT 21",
+            "SELECT u.id, u.full_name, u.email FROM course_students cs JOIN users u ON u.id = cs.student_id " +
+                    "WHERE cs.course_id = 1 AND cs.student_id > 0 ORDER BY cs.student_id LIMIT 21",
+            "SELECT COUNT(*) FROM course_students WHERE course_id = 1",
+            // AssignmentRepository, by course
+            "SELECT id, title FROM assignments WHERE course_id = 1 AND id > 0 ORDER BY id LIMIT 21",
+            "SELECT assignment_id, file_path FROM assignment_materials WHERE assignment_id IN (1, 2, 3)",
+            // AssignmentSubmissionRepository
+            "SELECT * FROM assignment_submission WHERE assignment_id = 1 AND student_id = 1",
+            "SELECT s.id, s.submitted_at FROM assignment_submission s WHERE s.assignment_id = 1 AND s.id > 0 " +
+                    "ORDER BY s.id LIMIT 21",
+            "SELECT a.id, s.id FROM assignment_submission s JOIN assignments a ON a.id = s.assignment_id " +
+                    "WHERE a.course_id = 1 AND s.student_id = 1",
+            "SELECT submission_id, file_path FROM submission_files WHERE submission_id IN (1, 2, 3)"
+    })
+    void hotQueryUsesAnIndex(String sql) {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+
+        assertThat(plan)
+                .as("plan of %s", sql)
+                .noneMatch(line -> line.contains("Seq Scan"));
+    }
+}
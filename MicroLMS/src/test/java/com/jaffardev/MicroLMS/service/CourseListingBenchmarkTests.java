@@ -0,0 +1,195 @@
+package com.jaffardev.MicroLMS.service;
+
+import com.jaffardev.MicroLMS.TestUsers;
+import com.jaffardev.MicroLMS.model.Assignment;
+import com.jaffardev.MicroLMS.model.AssignmentSubmission;
+import com.jaffardev.MicroLMS.model.Course;
+import com.jaffardev.MicroLMS.model.IdSequences;
+import com.jaffardev.MicroLMS.model.Role;
+import com.jaffardev.MicroLMS.model.User;
+import com.jaffardev.MicroLMS.repository.AssignmentRepository;
+import com.jaffardev.MicroLMS.repository.CourseRepository;
+import com.jaffardev.MicroLMS.repository.RoleRepository;
+import com.jaffardev.MicroLMS.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the old fetch-join course listing with the projection based one.
+ * Opt-in, it seeds a lot of rows: mvn test -Dbenchmark=true [-Dbenchmark.courses=10
+ * -Dbenchmark.assignments=30 -Dbenchmark.students=200]. Everything is rolled back afterwards.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional
+class CourseListingBenchmarkTests {
+
+    private static final int ITERATIONS = 5;
+
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void projectionListingBeatsFetchJoin() {
+        User teacher = seed(Integer.getInteger("benchmark.courses", 10),
+                Integer.getInteger("benchmark.assignments", 30),
+                Integer.getInteger("benchmark.students", 200));
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+
+        Measurement legacy = measure(stats, () -> legacyListing(teacher));
+        Measurement projection = measure(stats, () -> courseService.getCoursesByUserEmail(teacher.getEmail()));
+
+        log.info("Course listing per call:\n{}\n{}\n{}",
+                "path        statements  result-rows  entities  alloc-bytes  avg-ms",
+                legacy.format("fetch-join"), projection.format("projection"));
+
+        assertThat(projection.entities).isLessThan(legacy.entities);
+        assertThat(projection.rows).isLessThan(legacy.rows);
+    }
+
+    // What getCoursesByUserEmail used to do: hydrate every submission to read ids and one status
+    private void legacyListing(User teacher) {
+        for (Course course : courseRepository.findByTeacherIdOptimized(teacher.getId())) {
+            course.getStudents().size();
+            for (Assignment assignment : course.getAssignments()) {
+                assignment.getSubmissions().stream()
+                        .filter(s -> s.getStudent().getEmail().equals(teacher.getEmail()))
+                        .findFirst();
+                assignment.getSubmissions().stream().map(AssignmentSubmission::getId).toList();
+            }
+        }
+    }
+
+    private Measurement measure(Statistics stats, Runnable listing) {
+        // warm up the query plans and the JIT
+        entityManager.clear();
+        listing.run();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Measurement m = new Measurement();
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManager.clear();
+            stats.clear();
+            long allocBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            listing.run();
+
+            m.nanos += System.nanoTime() - start;
+            m.allocated += threads.getCurrentThreadAllocatedBytes() - allocBefore;
+            m.statements += stats.getPrepareStatementCount();
+            m.entities += stats.getEntityLoadCount();
+            for (String query : stats.getQueries()) {
+                m.rows += stats.getQueryStatistics(query).getExecutionRowCount();
+            }
+        }
+        m.divide(ITERATIONS);
+        return m;
+    }
+
+    private User seed(int courses, int assignmentsPerCourse, int students) {
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+        String run = UUID.randomUUID().toString().substring(0, 8);
+
+        User teacher = new User();
+        teacher.setEmail("bench-teacher-" + run + "@example.com");
+        teacher.setFullName("Bench Teacher");
+        teacher.setEnabled(true);
+        teacher.setRoles(Set.of(teacherRole));
+        teacher = userRepository.save(teacher);
+
+        List<User> roster = userRepository.saveAll(TestUsers.students(roleRepository, "bench-student", students));
+
+        List<Object[]> submissionRows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int c = 0; c < courses; c++) {
+            Course course = new Course();
+            course.setTitle("Bench course " + c);
+            course.setDescription("benchmark");
+            course.setInviteCode("b" + run + c);
+            course.setTeacher(teacher);
+            course.getStudents().addAll(roster);
+            course = courseRepository.save(course);
+
+            List<Assignment> assignments = new ArrayList<>();
+            for (int a = 0; a < assignmentsPerCourse; a++) {
+                Assignment assignment = new Assignment();
+                assignment.setTitle("Bench assignment " + a);
+                assignment.setMaxMarks(100);
+                assignment.setDueDate(LocalDateTime.now().plusDays(7));
+                assignment.setCourse(course);
+                assignments.add(assignment);
+            }
+            for (Assignment assignment : assignmentRepository.saveAll(assignments)) {
+                for (User student : roster) {
+                    submissionRows.add(new Object[]{assignment.getId(), student.getId(), now, "SUBMITTED"});
+                }
+            }
+        }
+        entityManager.flush();
+
+        jdbcTemplate.batchUpdate("INSERT INTO assignment_submission (id, assignment_id, student_id, submitted_at, status) " +
+                "VALUES (nextval('" + IdSequences.SUBMISSIONS + "'), ?, ?, ?, ?)", submissionRows);
+        entityManager.clear();
+        return teacher;
+    }
+
+    private static class Measurement {
+        long statements;
+        long rows;
+        long entities;
+        long allocated;
+        long nanos;
+
+        void divide(int n) {
+            statements /= n;
+            rows /= n;
+            entities /= n;
+            allocated /= n;
+            nanos /= n;
+        }
+
+        String format(String name) {
+            return String.format("%-11s %10d  %11d  %8d  %11d  %6.1f",
+                    name, statements, rows, entities, allocated, nanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jaffardev.MicroLMS.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradeHistogramTests {
+
+    private static final int[] MAX_MARKS = {0, 1, 10, 100, 101, 150, 200, 250, 333, 1000};
+
+    @Test
+    void oneBucketPerMarkUpToHundred() {
+        assertThat(GradeHistogram.bucketCount(10)).isEqualTo(11);
+        assertThat(GradeHistogram.bucketCount(100)).isEqualTo(101);
+        for (int marks = 0; marks <= 100; marks++) {
+            assertThat(GradeHistogram.bucketOf(marks, 100)).isEqualTo(marks);
+            assertThat(GradeHistogram.lowerBound(marks, 100)).isEqualTo(marks);
+            assertThat(GradeHistogram.upperBound(marks, 100)).isEqualTo(marks);
+        }
+    }
+
+    @Test
+    void hundredEqualBucketsAboveHundred() {
+        assertThat(GradeHistogram.bucketCount(101)).isEqualTo(GradeHistogram.MAX_BUCKETS);
+        assertThat(GradeHistogram.bucketCount(1000)).isEqualTo(GradeHistogram.MAX_BUCKETS);
+
+        // 200 max marks: two marks per bucket, the full mark alone in the last one
+        assertThat(GradeHistogram.bucketOf(0, 200)).isEqualTo(0);
+        assertThat(GradeHistogram.bucketOf(1, 200)).isEqualTo(0);
+        assertThat(GradeHistogram.bucketOf(2, 200)).isEqualTo(1);
+        assertThat(GradeHistogram.bucketOf(199, 200)).isEqualTo(99);
+        assertThat(GradeHistogram.bucketOf(200, 200)).isEqualTo(100);
+        assertThat(GradeHistogram.lowerBound(99, 200)).isEqualTo(198);
+        assertThat(GradeHistogram.upperBound(99, 200)).isEqualTo(199);
+        assertThat(GradeHistogram.lowerBound(100, 200)).isEqualTo(200);
+        assertThat(GradeHistogram.upperBound(100, 200)).isEqualTo(200);
+
+        // 150 max marks: buckets of one or two marks
+        assertThat(GradeHistogram.upperBound(0, 150)).isEqualTo(1);
+        assertThat(GradeHistogram.lowerBound(1, 150)).isEqualTo(2);
+        assertThat(GradeHistogram.upperBound(1, 150)).isEqualTo(2);
+    }
+
+    @Test
+    void everyMarkFallsBetweenTheBoundsOfItsBucket() {
+        for (int maxMarks : MAX_MARKS) {
+            for (int marks = 0; marks <= maxMarks; marks++) {
+                int bucket = GradeHistogram.bucketOf(marks, maxMarks);
+                assertThat(bucket).isBetween(0, GradeHistogram.bucketCount(maxMarks) - 1);
+                assertThat(marks).isBetween(GradeHistogram.lowerBound(bucket, maxMarks),
+                        GradeHistogram.upperBound(bucket, maxMarks));
+            }
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndNeverEmpty() {
+        for (int maxMarks : MAX_MARKS) {
+            int last = GradeHistogram.bucketCount(maxMarks) - 1;
+            assertThat(GradeHistogram.lowerBound(0, maxMarks)).isZero();
+            assertThat(GradeHistogram.upperBound(last, maxMarks)).isEqualTo(maxMarks);
+            for (int bucket = 0; bucket <= last; bucket++) {
+                assertThat(GradeHistogram.lowerBound(bucket, maxMarks))
+                        .isLessThanOrEqualTo(GradeHistogram.upperBound(bucket, maxMarks));
+                if (bucket < last) {
+                    assertThat(GradeHistogram.lowerBound(bucket + 1, maxMarks))
+                            .isEqualTo(GradeHistogram.upperBound(bucket, maxMarks) + 1);
+                }
+            }
+        }
+    }
+
+    @Test
+    void marksOutsideTheRangeAreClamped() {
+        assertThat(GradeHistogram.bucketOf(-5, 10)).isEqualTo(0);
+        assertThat(GradeHistogram.bucketOf(15, 10)).isEqualTo(10);
+        assertThat(GradeHistogram.bucketOf(5000, 1000)).isEqualTo(100);
+        assertThat(GradeHistogram.bucketOf(7, 0)).isEqualTo(0);
+    }
+
+    @Test
+    void quantileIsExactUpToHundredMarks() {
+        int[] histogram = GradeHistogram.empty(10);
+        for (int marks : new int[]{2, 4, 6, 8}) {
+            histogram[GradeHistogram.bucketOf(marks, 10)]++;
+        }
+
+        assertThat(GradeHistogram.quantile(histogram, 4, 0.0, 10)).isEqualTo(2.0);
+        assertThat(GradeHistogram.quantile(histogram, 4, 0.5, 10)).isEqualTo(4.0);
+        assertThat(GradeHistogram.quantile(histogram, 4, 0.75, 10)).isEqualTo(6.0);
+        assertThat(GradeHistogram.quantile(histogram, 4, 1.0, 10)).isEqualTo(8.0);
+    }
+
+    @Test
+    void quantileIsTheBucketMidpointAboveHundredMarks() {
+        int[] histogram = GradeHistogram.empty(200);
+        for (int marks : new int[]{10, 199, 200}) {
+            histogram[GradeHistogram.bucketOf(marks, 200)]++;
+        }
+
+        assertThat(GradeHistogram.quantile(histogram, 3, 0.0, 200)).isEqualTo(10.5);
+        assertThat(GradeHistogram.quantile(histogram, 3, 0.5, 200)).isEqualTo(198.5);
+        assertThat(GradeHistogram.quantile(histogram, 3, 1.0, 200)).isEqualTo(200.0);
+    }
+
+    @Test
+    void quantileOfAnEmptyHistogramIsNull() {
+        assertThat(GradeHistogram.quantile(GradeHistogram.empty(250), 0, 0.5, 250)).isNull();
+    }
+}